@@ -0,0 +1,48 @@
+package quiz.bench;
+
+import org.openjdk.jmh.annotations.*;
+import quiz.QuizQuestion;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answer checking for letter ("C") and option-text answer keys.
+ * Run with -prof gc to confirm the per-call allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnswerCheckBenchmark {
+
+    @Param({ "letter", "text" })
+    public String keyType;
+
+    private QuizQuestion question;
+    private String selectedText;
+
+    @Setup
+    public void setUp() {
+        String[] options = { "True", "False", "All of the above", "None of the above" };
+        question = new QuizQuestion("Which is right?", options, keyType.equals("letter") ? "C" : "all of the  above");
+        // What a UI would pass: the button text, with different spacing and case.
+        selectedText = "  All of  the ABOVE ";
+    }
+
+    @Benchmark
+    public boolean isCorrectText() {
+        return question.isCorrect(selectedText);
+    }
+
+    @Benchmark
+    public boolean isCorrectIndex() {
+        return question.isCorrect(2);
+    }
+
+    @Benchmark
+    public String correctAnswerNormalized() {
+        return question.getCorrectAnswerNormalized();
+    }
+}
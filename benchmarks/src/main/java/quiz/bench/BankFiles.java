@@ -0,0 +1,27 @@
+package quiz.bench;
+
+import quiz.BankGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Temporary files for the benchmarks.
+ */
+final class BankFiles {
+
+    private BankFiles() {
+    }
+
+    static Path generateCsv(Path dir, int rows) throws IOException {
+        return BankGenerator.generateCsv(dir.resolve("bank-" + rows + ".csv"), rows);
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) return;
+        try (var paths = Files.walk(dir)) {
+            paths.sorted((a, b) -> b.getNameCount() - a.getNameCount()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package quiz.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar. Same options as the stock JMH runner, but results default
+ * to machine-readable JSON in target/jmh-result.json unless -rf/-rff are given.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        List<String> argList = new ArrayList<>(Arrays.asList(args));
+        if (!argList.contains("-rf")) {
+            argList.addAll(List.of("-rf", "json"));
+        }
+        if (!argList.contains("-rff")) {
+            Files.createDirectories(Paths.get("target"));
+            argList.addAll(List.of("-rff", "target/jmh-result.json"));
+        }
+        org.openjdk.jmh.Main.main(argList.toArray(new String[0]));
+    }
+}
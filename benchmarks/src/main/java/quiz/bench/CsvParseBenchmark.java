@@ -0,0 +1,53 @@
+package quiz.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import quiz.CSVReaderUtil;
+import quiz.CsvQuestionParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing throughput over generated banks of 1K to 10M rows.
+ * Divide the row count by the score to get rows per millisecond.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class CsvParseBenchmark {
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    public int rows;
+
+    private Path dir;
+    private Path csv;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        dir = Files.createTempDirectory("quiz-bench");
+        csv = BankFiles.generateCsv(dir, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        BankFiles.deleteRecursively(dir);
+    }
+
+    /** Streaming parse; questions are consumed and dropped. */
+    @Benchmark
+    public long stream(Blackhole bh) throws IOException {
+        return CsvQuestionParser.parse(csv, bh::consume).getRowsParsed();
+    }
+
+    /** Parse and materialize the whole bank, as the UI loader does. */
+    @Benchmark
+    public int materialize() throws IOException {
+        return CSVReaderUtil.readQuestions(csv).size();
+    }
+}
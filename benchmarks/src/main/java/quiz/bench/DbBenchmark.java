@@ -0,0 +1,82 @@
+package quiz.bench;
+
+import org.openjdk.jmh.annotations.*;
+import quiz.DBUtil;
+import quiz.LeaderboardEntry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DBUtil save and leaderboard latency against a temporary SQLite file pre-filled with
+ * {@code tableSize} results. Each parameter set runs in its own fork, so the database URL
+ * can be set before DBUtil is initialized.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DbBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int tableSize;
+
+    private Path dir;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws IOException, SQLException {
+        dir = Files.createTempDirectory("quiz-bench-db");
+        System.setProperty("quiz.db.url", "jdbc:sqlite:" + dir.resolve("bench.sqlite"));
+
+        LocalDateTime base = LocalDateTime.now().minusDays(365);
+        List<LeaderboardEntry> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < tableSize; i++) {
+            batch.add(new LeaderboardEntry("user" + (i % 5000), i % 51, base.plusSeconds(i)));
+            if (batch.size() == 10_000) {
+                DBUtil.saveResults(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            DBUtil.saveResults(batch);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void dropDatabase() throws IOException {
+        DBUtil.shutdown();
+        BankFiles.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public void saveResult() {
+        DBUtil.saveResult("bench" + (next++ % 100), next % 51);
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> leaderboardTop10() {
+        return DBUtil.getLeaderboard(10);
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> leaderboardPage() {
+        // A page from the middle of the ranking, via the keyset cursor.
+        LeaderboardEntry cursor = new LeaderboardEntry(Long.MAX_VALUE, "", 25, LocalDateTime.now());
+        return DBUtil.getLeaderboardPage(50, cursor);
+    }
+
+    @Benchmark
+    @Measurement(iterations = 3, time = 2)
+    public List<LeaderboardEntry> leaderboardAll() {
+        return DBUtil.getLeaderboard();
+    }
+}
@@ -0,0 +1,47 @@
+package quiz.bench;
+
+import org.openjdk.jmh.annotations.*;
+import quiz.ParallelCsvLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of {@link ParallelCsvLoader} with thread count on a 1M-row bank.
+ * Speedup is the threads=1 score divided by each score; linear scaling means speedup == threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class ParallelParseBenchmark {
+
+    @Param({ "1000000" })
+    public int rows;
+
+    @Param({ "1", "2", "4", "8", "16", "32" })
+    public int threads;
+
+    private Path dir;
+    private Path csv;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        dir = Files.createTempDirectory("quiz-bench");
+        csv = BankFiles.generateCsv(dir, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        BankFiles.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public int readAll() throws IOException {
+        return ParallelCsvLoader.readAll(csv, threads).size();
+    }
+}
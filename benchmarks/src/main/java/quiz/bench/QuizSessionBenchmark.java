@@ -0,0 +1,62 @@
+package quiz.bench;
+
+import org.openjdk.jmh.annotations.*;
+import quiz.QuestionBank;
+import quiz.QuizQuestion;
+import quiz.QuizSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answer throughput across many concurrent {@link QuizSession}s sharing one bank.
+ * Each operation answers the current question of a random session and moves it on,
+ * restarting sessions that reach the end of the bank.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuizSessionBenchmark {
+
+    @Param({ "1000", "50000" })
+    public int sessions;
+
+    private QuizSession[] active;
+
+    @Setup
+    public void setUp() {
+        List<QuizQuestion> questions = new ArrayList<>();
+        String[] options = { "True", "False", "Maybe", "All of the above" };
+        for (int i = 0; i < 1000; i++) {
+            questions.add(new QuizQuestion("Question " + i, options, i % 2 == 0 ? "A" : "B"));
+        }
+        QuestionBank bank = QuestionBank.of(questions);
+
+        active = new QuizSession[sessions];
+        for (int i = 0; i < sessions; i++) {
+            active[i] = new QuizSession(bank);
+            active[i].start("player" + i);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean answerAndNext() {
+        QuizSession session = active[ThreadLocalRandom.current().nextInt(active.length)];
+        synchronized (session) {
+            if (session.getState() != QuizSession.State.ACTIVE) {
+                session.next();
+            }
+            if (session.current() == null) {
+                session.end();
+                session.start(session.getUsername());
+            }
+            return session.answer(ThreadLocalRandom.current().nextInt(4));
+        }
+    }
+}
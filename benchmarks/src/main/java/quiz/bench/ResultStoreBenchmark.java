@@ -0,0 +1,119 @@
+package quiz.bench;
+
+import org.openjdk.jmh.annotations.*;
+import quiz.ConnectionPool;
+import quiz.DBUtil;
+import quiz.LeaderboardEntry;
+import quiz.ResultStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same workload against every {@link ResultStore} backend, each pre-filled with
+ * {@code tableSize} results in a temporary directory: a single-result commit (saveResult),
+ * a write-behind group commit of 256 results, the top 10 and a keyset page from the middle of
+ * the ranking. Each parameter set runs in its own fork, so -Dquiz.store can be set before
+ * DBUtil is initialized.
+ *
+ * {@code sqlite} includes the summary trigger, which upserts user_best, daily_best and
+ * weekly_best on every insert; the other stores keep no summaries. {@code sqlite-bare} drops
+ * the trigger, so it stores the same bare row as {@code h2} and {@code mmap} and is the one to
+ * compare them with.
+ *
+ *   java -jar benchmarks/target/benchmarks.jar ResultStoreBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultStoreBenchmark {
+
+    private static final int GROUP_COMMIT = 256;
+
+    @Param({ "sqlite", "sqlite-bare", "h2", "mmap" })
+    public String store;
+
+    @Param({ "100000" })
+    public int tableSize;
+
+    private Path dir;
+    private ResultStore results;
+    private List<LeaderboardEntry> group;
+    private LocalDateTime base;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void openStore() throws IOException, SQLException {
+        dir = Files.createTempDirectory("quiz-bench-store");
+        boolean bare = store.equals("sqlite-bare");
+        System.setProperty("quiz.store", bare ? "sqlite" : store);
+        System.setProperty("quiz.db.url", "jdbc:sqlite:" + dir.resolve("bench.sqlite"));
+        System.setProperty("quiz.store.h2.url", "jdbc:h2:" + dir.resolve("bench"));
+        System.setProperty("quiz.store.mmap.file", dir.resolve("bench.qzs").toString());
+        results = DBUtil.store();
+        if (bare) {
+            try (ConnectionPool.PooledConnection conn = DBUtil.pool().borrow();
+                 Statement stmt = conn.connection().createStatement()) {
+                stmt.execute("DROP TRIGGER IF EXISTS trg_results_summaries");
+            }
+        }
+
+        base = LocalDateTime.now().minusDays(365);
+        List<LeaderboardEntry> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < tableSize; i++) {
+            batch.add(result(i));
+            if (batch.size() == 10_000) {
+                results.saveResults(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            results.saveResults(batch);
+        }
+        group = new ArrayList<>(GROUP_COMMIT);
+        for (int i = 0; i < GROUP_COMMIT; i++) {
+            group.add(result(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeStore() throws IOException {
+        DBUtil.shutdown();
+        BankFiles.deleteRecursively(dir);
+    }
+
+    private LeaderboardEntry result(int i) {
+        return new LeaderboardEntry("user" + (i % 5000), i % 51, base.plusSeconds(i));
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> saveOne() throws SQLException {
+        return results.saveResults(List.of(result(next++)));
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> saveGroupCommit() throws SQLException {
+        return results.saveResults(group);
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> top10() throws SQLException {
+        return results.getLeaderboardPage(10, null);
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> pageFromMiddle() throws SQLException {
+        LeaderboardEntry cursor = new LeaderboardEntry(Long.MAX_VALUE, "", 25, LocalDateTime.now());
+        return results.getLeaderboardPage(50, cursor);
+    }
+}
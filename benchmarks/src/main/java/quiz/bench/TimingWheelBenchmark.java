@@ -0,0 +1,48 @@
+package quiz.bench;
+
+import org.openjdk.jmh.annotations.*;
+import quiz.TimingWheel;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of starting and abandoning a countdown on a {@link TimingWheel} that already tracks
+ * {@code active} session deadlines, as happens when a player finishes before time runs out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimingWheelBenchmark {
+
+    private static final Runnable NOOP = () -> { };
+
+    @Param({ "0", "100000" })
+    public int active;
+
+    private TimingWheel wheel;
+
+    @Setup
+    public void setUp() {
+        wheel = new TimingWheel(50, TimeUnit.MILLISECONDS, 512);
+        for (int i = 0; i < active; i++) {
+            // Far enough out that none fire during the run.
+            wheel.schedule(1 + ThreadLocalRandom.current().nextInt(3600), TimeUnit.HOURS, NOOP);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        wheel.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean scheduleAndCancel() {
+        TimingWheel.Timeout timeout = wheel.schedule(60, TimeUnit.SECONDS, NOOP);
+        return timeout.cancel();
+    }
+}
@@ -2,6 +2,11 @@ module com.example.csvdriven_quiz_app {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.sql;
+    requires org.xerial.sqlitejdbc;
+    requires com.h2database;
+    requires jdk.httpserver;
+    requires jdk.jfr;
+    requires java.management;
 
 
     opens com.example.csvdriven_quiz_app to javafx.fxml;
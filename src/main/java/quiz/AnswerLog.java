@@ -0,0 +1,440 @@
+package quiz;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-answer analytics: every answer is appended to a compact binary log, and per-question
+ * {@link QuestionStats} are kept up to date in memory as the log is written.
+ *
+ * {@link QuizSession} reports answers through {@link #answered}; they are queued and a single
+ * background thread appends them in batches of fixed-size records:
+ * <pre>
+ * header  int magic "QZA1", int version, long log id
+ * record  long epoch millis, long bank id, int question, int response millis,
+ *         byte option, byte correct, short reserved                          (28 bytes)
+ * </pre>
+ * The same thread folds each batch into the in-memory stats and every
+ * -Dquiz.analytics.persistSeconds (default 30) writes the changed questions to the
+ * {@code question_stats} table, together with how far into the log they are current. On the
+ * next start the stats are read back and only the log tail after that checkpoint is replayed,
+ * so neither queries nor startup scan the raw events.
+ *
+ * Questions are identified by {@link #bankId(Path) bank id} and their position in the bank file.
+ * Enabled unless -Dquiz.analytics=false; the log lives at -Dquiz.analytics.log (default
+ * answers.log). Answers are dropped (and counted) rather than block a quiz if the queue is full.
+ */
+public class AnswerLog implements AutoCloseable {
+
+    public static final boolean ENABLED = !"false".equals(System.getProperty("quiz.analytics"));
+    private static final String LOG_FILE = System.getProperty("quiz.analytics.log", "answers.log");
+    private static final long PERSIST_SECONDS = Long.getLong("quiz.analytics.persistSeconds", 30);
+    private static final int QUEUE_CAPACITY = Integer.getInteger("quiz.analytics.queueCapacity", 10_000);
+
+    private static final int MAGIC = 0x515A4131; // "QZA1"
+    private static final int VERSION = 2; // 1 had 32-bit, per-file-name bank ids
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 28;
+    private static final int BATCH_SIZE = 512;
+
+    private static volatile AnswerLog shared;
+
+    private static final class Answer {
+        final long time;
+        final long bankId;
+        final int question;
+        final int millis;
+        final byte option;
+        final boolean correct;
+
+        Answer(long time, long bankId, int question, int millis, int option, boolean correct) {
+            this.time = time;
+            this.bankId = bankId;
+            this.question = question;
+            this.millis = millis;
+            this.option = (byte) option;
+            this.correct = correct;
+        }
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long logId;
+    private final long persistIntervalNanos;
+    private final BlockingQueue<Answer> queue;
+    private final Map<Long, Map<Integer, QuestionStats>> stats = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean closed = false;
+
+    // Writer thread only.
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH_SIZE * RECORD_BYTES);
+    private final Set<QuestionStats> dirty = new HashSet<>();
+    private long bytesApplied;
+    private long persistedBytes;
+
+    /**
+     * Opens (or creates) the log, restores persisted stats and replays the unpersisted tail.
+     */
+    public AnswerLog(Path file, long persistInterval, TimeUnit unit, int queueCapacity) throws IOException {
+        this.file = file;
+        this.persistIntervalNanos = unit.toNanos(persistInterval);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            this.logId = openHeader();
+            restore();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "quiz-answer-log");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Shared log, opened on first use, or null if analytics are disabled or the log cannot be
+     * opened. A shutdown hook persists the stats if {@link #shutdown()} is not called.
+     */
+    public static AnswerLog shared() {
+        AnswerLog log = shared;
+        if (log != null || !ENABLED) return log;
+        synchronized (AnswerLog.class) {
+            if (shared == null) {
+                try {
+                    shared = new AnswerLog(Paths.get(LOG_FILE), PERSIST_SECONDS, TimeUnit.SECONDS, QUEUE_CAPACITY);
+                    Runtime.getRuntime().addShutdownHook(new Thread(AnswerLog::shutdown, "quiz-answer-log-shutdown"));
+                } catch (IOException e) {
+                    System.err.println("❌ Error opening answer log " + LOG_FILE + ":");
+                    e.printStackTrace();
+                }
+            }
+            return shared;
+        }
+    }
+
+    /**
+     * Opens the shared log on a background thread. Call at startup: opening migrates the
+     * database and replays the log tail, which must not happen on the UI thread, and answers
+     * are only recorded once the log is open.
+     */
+    public static void openInBackground() {
+        if (!ENABLED) return;
+        Thread opener = new Thread(AnswerLog::shared, "quiz-answer-log-open");
+        opener.setDaemon(true);
+        opener.start();
+    }
+
+    /**
+     * Closes the shared log, if open. Call before {@link DBUtil#shutdown()}.
+     */
+    public static void shutdown() {
+        AnswerLog log;
+        synchronized (AnswerLog.class) {
+            log = shared;
+            shared = null;
+        }
+        if (log != null) log.close();
+    }
+
+    /**
+     * Records an answer in the shared log. Called by {@link QuizSession}, often on the FX thread,
+     * so this never opens the log: answers given before it is open are not recorded.
+     */
+    static void answered(long bankId, int question, int option, boolean correct, long responseNanos) {
+        AnswerLog log = shared;
+        if (log != null) {
+            log.record(bankId, question, option, correct, TimeUnit.NANOSECONDS.toMillis(responseNanos));
+        }
+    }
+
+    /**
+     * Stable id for a bank: a 64-bit FNV-1a hash of its real path without the extension, so stats
+     * follow the bank across restarts, a CSV, its .csv.gz and its compiled .qzb in the same
+     * directory share them, and same-named banks in different directories (easy/questions.csv,
+     * hard/questions.csv) do not.
+     */
+    public static long bankId(Path bankFile) {
+        Path path = bankFile.toAbsolutePath().normalize();
+        try {
+            path = path.toRealPath();
+        } catch (IOException e) {
+            // Not there (any more): the normalized path is the best identity left.
+        }
+        String name = path.getFileName().toString();
+        if (GzipBankReader.isCompressed(path)) {
+            name = name.substring(0, name.length() - GzipBankReader.EXTENSION.length());
+        }
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) name = name.substring(0, dot);
+        String key = path.resolveSibling(name).toString();
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Queues an answer. Never blocks: if the writer has fallen behind, the answer is dropped.
+     */
+    public void record(long bankId, int question, int option, boolean correct, long responseMillis) {
+        int millis = (int) Math.max(0, Math.min(responseMillis, Integer.MAX_VALUE));
+        if (closed || !queue.offer(new Answer(System.currentTimeMillis(), bankId, question, millis, option, correct))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    // --------------------
+    // Queries (in-memory aggregates only)
+    // --------------------
+
+    /** Stats for one question, or null if it was never answered. */
+    public QuestionStats getStats(long bankId, int question) {
+        Map<Integer, QuestionStats> bank = stats.get(bankId);
+        QuestionStats s = bank == null ? null : bank.get(question);
+        return s == null ? null : s.copy();
+    }
+
+    /** Stats for every answered question of a bank, in question order. */
+    public List<QuestionStats> getStats(long bankId) {
+        List<QuestionStats> result = snapshot(bankId);
+        result.sort(Comparator.comparingInt(QuestionStats::getQuestion));
+        return result;
+    }
+
+    /**
+     * The questions with the lowest accuracy among those answered at least {@code minAttempts} times.
+     */
+    public List<QuestionStats> hardest(long bankId, long minAttempts, int limit) {
+        List<QuestionStats> result = snapshot(bankId);
+        result.removeIf(s -> s.getAttempts() < minAttempts);
+        result.sort(Comparator.comparingDouble(QuestionStats::getAccuracy)
+                .thenComparing(Comparator.comparingLong(QuestionStats::getAttempts).reversed()));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /** Answers dropped because the queue was full or the log closed. */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private List<QuestionStats> snapshot(long bankId) {
+        Map<Integer, QuestionStats> bank = stats.get(bankId);
+        List<QuestionStats> result = new ArrayList<>(bank == null ? 0 : bank.size());
+        if (bank != null) {
+            for (QuestionStats s : bank.values()) result.add(s.copy());
+        }
+        return result;
+    }
+
+    private QuestionStats statsFor(long bankId, int question) {
+        return stats.computeIfAbsent(bankId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(question, q -> new QuestionStats(bankId, q));
+    }
+
+    // --------------------
+    // Startup
+    // --------------------
+
+    /**
+     * Validates the header of an existing log or writes one for a new log; returns the log id.
+     * A version 1 log (per-file-name bank ids, which cannot be mapped to the current ones) is
+     * copied aside to {@code <file>.v1} and a new log is started.
+     */
+    private long openHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (channel.size() >= HEADER_BYTES) {
+            channel.read(header, 0);
+            header.flip();
+            int magic = header.getInt();
+            int version = header.getInt();
+            if (magic == MAGIC && version == VERSION) {
+                return header.getLong();
+            }
+            if (magic != MAGIC || version != 1) {
+                throw new IOException(file + " is not an answer log");
+            }
+            Path old = file.resolveSibling(file.getFileName() + ".v1");
+            Files.copy(file, old, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("✅ Moved the version 1 answer log to " + old + "; starting a new one");
+            header.clear();
+        }
+        long id = new SplittableRandom().nextLong();
+        header.putInt(MAGIC).putInt(VERSION).putLong(id).flip();
+        channel.truncate(0);
+        channel.write(header, 0);
+        return id;
+    }
+
+    /**
+     * Loads the persisted stats, then replays the log records written after their checkpoint.
+     * A torn record left by a crash is cut off so appends stay aligned.
+     */
+    private void restore() throws IOException {
+        long checkpoint;
+        try {
+            for (QuestionStats s : DBUtil.loadQuestionStats()) {
+                stats.computeIfAbsent(s.getBankId(), id -> new ConcurrentHashMap<>()).put(s.getQuestion(), s);
+            }
+            checkpoint = DBUtil.loadAnswerLogCheckpoint(logId);
+        } catch (SQLException e) {
+            throw new IOException("Could not load question stats", e);
+        }
+
+        long size = channel.size();
+        long end = HEADER_BYTES + (size - HEADER_BYTES) / RECORD_BYTES * RECORD_BYTES;
+        if (end < size) channel.truncate(end);
+        long from = checkpoint < HEADER_BYTES || checkpoint > end ? HEADER_BYTES : checkpoint;
+
+        ByteBuffer buf = ByteBuffer.allocate(BATCH_SIZE * RECORD_BYTES);
+        for (long pos = from; pos < end; ) {
+            buf.clear();
+            buf.limit((int) Math.min(buf.capacity(), end - pos));
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, pos + buf.position()) < 0) break;
+            }
+            buf.flip();
+            while (buf.remaining() >= RECORD_BYTES) {
+                buf.getLong(); // time
+                long bankId = buf.getLong();
+                int question = buf.getInt();
+                int millis = buf.getInt();
+                byte option = buf.get();
+                boolean correct = buf.get() != 0;
+                buf.getShort();
+                QuestionStats s = statsFor(bankId, question);
+                s.record(option, correct, millis);
+                dirty.add(s);
+            }
+            pos += buf.limit();
+        }
+        bytesApplied = end;
+        persistedBytes = from;
+        channel.position(end);
+        if (from < end) {
+            System.out.println("✅ Replayed " + (end - from) / RECORD_BYTES + " answers from " + file);
+        }
+    }
+
+    // --------------------
+    // Writer thread
+    // --------------------
+
+    private void run() {
+        List<Answer> batch = new ArrayList<>(BATCH_SIZE);
+        long nextPersist = System.nanoTime() + persistIntervalNanos;
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Answer first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                }
+            } catch (InterruptedException e) {
+                // Not expected: close() never interrupts, since that would close the channel.
+            }
+            append(batch);
+            batch.clear();
+            if (System.nanoTime() - nextPersist >= 0) {
+                persist();
+                nextPersist = System.nanoTime() + persistIntervalNanos;
+            }
+        }
+    }
+
+    private void append(List<Answer> batch) {
+        if (batch.isEmpty()) return;
+        buffer.clear();
+        for (Answer a : batch) {
+            buffer.putLong(a.time).putLong(a.bankId).putInt(a.question).putInt(a.millis)
+                    .put(a.option).put((byte) (a.correct ? 1 : 0)).putShort((short) 0);
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            System.err.println("❌ Error writing " + batch.size() + " answer(s) to " + file + ":");
+            e.printStackTrace();
+            dropped.addAndGet(batch.size());
+            return;
+        }
+        bytesApplied += (long) batch.size() * RECORD_BYTES;
+        for (Answer a : batch) {
+            QuestionStats s = statsFor(a.bankId, a.question);
+            s.record(a.option, a.correct, a.millis);
+            dirty.add(s);
+        }
+    }
+
+    /**
+     * Writes the changed stats and the log position they cover. The log is forced to disk
+     * first so the checkpoint never points past durable records.
+     */
+    private void persist() {
+        if (dirty.isEmpty() && bytesApplied == persistedBytes) return;
+        List<QuestionStats> changed = new ArrayList<>(dirty.size());
+        for (QuestionStats s : dirty) changed.add(s.copy());
+        try {
+            channel.force(false);
+            DBUtil.saveQuestionStats(changed, logId, bytesApplied);
+            dirty.clear();
+            persistedBytes = bytesApplied;
+        } catch (IOException | SQLException e) {
+            // Keep them dirty; the next round retries.
+            System.err.println("❌ Error persisting question stats:");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stops accepting answers, writes everything queued and persists the stats.
+     */
+    @Override
+    public void close() {
+        // No interrupt: it would close the FileChannel mid-write. The writer polls every 100 ms.
+        closed = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Answer> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        append(rest);
+        persist();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("❌ Error closing answer log:");
+            e.printStackTrace();
+        }
+    }
+}
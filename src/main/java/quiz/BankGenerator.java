@@ -0,0 +1,47 @@
+package quiz;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Writes synthetic question banks for load tests and benchmarks.
+ *
+ * Every 10th question is quoted and contains a comma, and answer keys alternate between
+ * letters and option text, so generated banks exercise the same parsing paths as real ones.
+ *
+ * Usage: java quiz.BankGenerator output.csv rows
+ */
+public class BankGenerator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BankGenerator <output.csv> <rows>");
+            System.exit(2);
+        }
+        generateCsv(Paths.get(args[0]), Integer.parseInt(args[1]));
+    }
+
+    public static Path generateCsv(Path file, int rows) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                if (i % 10 == 0) {
+                    w.write("\"Which of these, if any, equals " + i + " + " + i + "?\"");
+                } else {
+                    w.write("What is " + i + " plus " + i + "?");
+                }
+                w.write(',');
+                w.write(Integer.toString(2 * i));
+                w.write(',');
+                w.write(Integer.toString(2 * i + 1));
+                w.write(",True,All of the above,");
+                w.write(i % 2 == 0 ? "A" : Integer.toString(2 * i));
+                w.write('\n');
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,514 @@
+package quiz;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches CSV banks on disk and reloads them incrementally when they change.
+ *
+ * For every watched bank the watcher keeps where each row starts in the file and its content
+ * hash (see {@link CsvQuestionParser.RecordFilter}), plus a hash of every 64 KB block of the
+ * file. On a change the blocks are hashed again to find the first one that differs; rows that
+ * end before it are kept without being read, and the file is parsed only from the start of the
+ * first row that may have changed. Of the rows parsed, those whose hash the previous version
+ * already had are not decoded either: their pooled strings are reused even if they moved. So
+ * appending or editing near the end of a large bank costs one cheap hashing pass over the file
+ * plus the parse of the edited tail.
+ *
+ * Each version is an immutable {@link CompactQuestionBank} spliced from the previous one (see
+ * {@link CompactQuestionBank#toBuilder(int)}) and swapped in atomically, so sessions that
+ * already hold the previous bank keep playing it undisturbed.
+ *
+ * Editors often save in several steps, so events are debounced for -Dquiz.watch.debounceMs
+ * (default 200 ms). Compiled (.qzb) banks cannot be watched: rewriting a mapped file under a
+ * running session is unsafe. Watch the source CSV instead and recompile. Compressed (.csv.gz)
+ * banks can be watched, but every change re-parses the whole file.
+ */
+public final class BankWatcher implements AutoCloseable {
+
+    private static final long DEBOUNCE_MS = Long.getLong("quiz.watch.debounceMs", 200);
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final long MAP_WINDOW = 1024L * BLOCK_SIZE;
+
+    private final WatchService watchService;
+    private final Map<Path, WatchKey> directories = new HashMap<>();
+    private final Map<Path, Watched> watched = new ConcurrentHashMap<>();
+    private final Thread thread;
+    private volatile boolean closed = false;
+
+    /**
+     * Result of one reload.
+     */
+    public static final class Reload {
+        private final Path file;
+        private final QuestionBank bank;
+        private final int rowsReused;
+        private final int rowsDecoded;
+        private final int rowsRemoved;
+        private final long nanos;
+
+        Reload(Path file, QuestionBank bank, int rowsReused, int rowsDecoded, int rowsRemoved, long nanos) {
+            this.file = file;
+            this.bank = bank;
+            this.rowsReused = rowsReused;
+            this.rowsDecoded = rowsDecoded;
+            this.rowsRemoved = rowsRemoved;
+            this.nanos = nanos;
+        }
+
+        public Path getFile() { return file; }
+        public QuestionBank getBank() { return bank; }
+        /** Rows whose content was unchanged and whose pooled strings were reused. */
+        public int getRowsReused() { return rowsReused; }
+        /** New or edited rows that had to be decoded. */
+        public int getRowsDecoded() { return rowsDecoded; }
+        /** Rows of the previous version that no longer appear. */
+        public int getRowsRemoved() { return rowsRemoved; }
+        public long getNanos() { return nanos; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d questions (%d reused, %d decoded, %d removed) in %.1f ms",
+                    file.getFileName(), bank.size(), rowsReused, rowsDecoded, rowsRemoved, nanos / 1e6);
+        }
+    }
+
+    /**
+     * Where each row of a CSV bank starts in the file and the hash of its content, in bank order.
+     * Record one while parsing a bank (from a {@link CsvQuestionParser.RecordFilter}, with
+     * {@link CsvQuestionParser#getRecordStart()}) to hand the bank to
+     * {@link #watch(QuestionBankCache.Key, CompactQuestionBank, RowIndex, Consumer)} without a
+     * second parse.
+     */
+    public static final class RowIndex {
+        private long[] starts;
+        private long[] hashes;
+        private int count;
+
+        public RowIndex() {
+            this(1024);
+        }
+
+        private RowIndex(int capacity) {
+            starts = new long[Math.max(16, capacity)];
+            hashes = new long[starts.length];
+        }
+
+        public void add(long start, long hash) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                hashes = Arrays.copyOf(hashes, count * 2);
+            }
+            starts[count] = start;
+            hashes[count] = hash;
+            count++;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        /** A new index holding the first {@code rows} rows, with room for about {@code expected}. */
+        private RowIndex prefix(int rows, int expected) {
+            RowIndex copy = new RowIndex(Math.max(rows, expected) + 1024);
+            System.arraycopy(starts, 0, copy.starts, 0, rows);
+            System.arraycopy(hashes, 0, copy.hashes, 0, rows);
+            copy.count = rows;
+            return copy;
+        }
+
+        /** Where row {@code r} ends: the next row's start, or the end of the file. */
+        private long end(int r, long fileSize) {
+            return r + 1 < count ? starts[r + 1] : fileSize;
+        }
+
+        /** Number of leading rows that end strictly before {@code offset}. */
+        private int rowsEndingBefore(long offset, long fileSize) {
+            int lo = 0;
+            int hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (end(mid, fileSize) < offset) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    /** Size of a file and the hash of each of its {@link #BLOCK_SIZE} blocks. */
+    private static final class FileBlocks {
+        final long size;
+        final long[] hashes;
+
+        FileBlocks(long size, long[] hashes) {
+            this.size = size;
+            this.hashes = hashes;
+        }
+    }
+
+    /** One watched file: its current snapshot and who to tell about changes. */
+    private static final class Watched {
+        final Path file;
+        final Consumer<Reload> listener;
+        volatile QuestionBankCache.Key identity;
+        volatile CompactQuestionBank bank;
+        // Describe the file as of identity; null before the first load.
+        RowIndex rows;
+        FileBlocks blocks;
+
+        Watched(Path file, Consumer<Reload> listener) {
+            this.file = file;
+            this.listener = listener;
+        }
+    }
+
+    public BankWatcher() throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.thread = new Thread(this::run, "quiz-bank-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Loads the bank, starts watching it and returns the initial snapshot. The listener is
+     * called on the watcher thread after every reload that changed the file.
+     * Parses the whole file once, so call it off the UI thread.
+     */
+    public QuestionBank watch(Path file, Consumer<Reload> listener) throws IOException {
+        Watched w = new Watched(realCsv(file), listener);
+        start(w);
+        return w.bank;
+    }
+
+    /**
+     * Starts watching a bank that was already parsed, without parsing it again. {@code identity}
+     * is the file's identity from before that parse and {@code rows} the row index recorded
+     * during it. If the file has changed since, it is reloaded (incrementally) right away.
+     * Hashes the file once, so call it off the UI thread. Returns the current snapshot.
+     */
+    public QuestionBank watch(QuestionBankCache.Key identity, CompactQuestionBank bank, RowIndex rows,
+                              Consumer<Reload> listener) throws IOException {
+        if (rows.size() != bank.size()) {
+            throw new IllegalArgumentException("Row index has " + rows.size() + " rows, bank " + bank.size());
+        }
+        Watched w = new Watched(realCsv(identity.getPath()), listener);
+        FileBlocks blocks = GzipBankReader.isCompressed(w.file) ? null : blockHashes(w.file);
+        if (identity.equals(QuestionBankCache.Key.of(w.file))) {
+            // Unchanged since the parse, so the blocks describe the same content as the rows.
+            w.identity = identity;
+            w.bank = bank;
+            w.rows = rows;
+            w.blocks = blocks;
+        } else {
+            // Reuse the rows by hash, but parse the whole file again.
+            w.bank = bank;
+            w.rows = rows;
+        }
+        start(w);
+        return w.bank;
+    }
+
+    private static Path realCsv(Path file) throws IOException {
+        if (CompiledQuestionBank.isCompiledBank(file)) {
+            throw new IllegalArgumentException("Compiled banks cannot be watched; watch the source CSV instead");
+        }
+        return file.toRealPath();
+    }
+
+    private void start(Watched w) throws IOException {
+        // Watch before the first parse, so an edit made during it is not lost: its event waits
+        // on the lock below and then finds the file changed since the identity taken first.
+        synchronized (w) {
+            synchronized (directories) {
+                Path dir = w.file.getParent();
+                if (!directories.containsKey(dir)) {
+                    directories.put(dir, dir.register(watchService,
+                            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+                }
+            }
+            watched.put(w.file, w);
+            try {
+                reload(w);
+            } catch (IOException | RuntimeException e) {
+                unwatch(w.file);
+                throw e;
+            }
+        }
+    }
+
+    public void unwatch(Path file) {
+        Path real = file.toAbsolutePath().normalize();
+        Watched w = watched.remove(real);
+        if (w == null) {
+            try {
+                w = watched.remove(file.toRealPath());
+            } catch (IOException e) {
+                // Already gone from disk; nothing else to find it by.
+            }
+        }
+        if (w == null) return;
+        synchronized (directories) {
+            Path dir = w.file.getParent();
+            boolean dirStillUsed = watched.keySet().stream().anyMatch(p -> dir.equals(p.getParent()));
+            if (!dirStillUsed) {
+                WatchKey key = directories.remove(dir);
+                if (key != null) key.cancel();
+            }
+        }
+    }
+
+    /**
+     * Current snapshot of a watched bank, or null if the file is not watched (or its first load
+     * in {@link #watch} has not finished).
+     */
+    public QuestionBank current(Path file) throws IOException {
+        Watched w = watched.get(file.toRealPath());
+        return w == null ? null : w.bank;
+    }
+
+    /**
+     * Reloads a watched file now, without waiting for a change event. Returns null if the
+     * file is not watched or has not changed.
+     */
+    public Reload reload(Path file) throws IOException {
+        Watched w = watched.get(file.toRealPath());
+        if (w == null) return null;
+        Reload r;
+        synchronized (w) {
+            r = reload(w);
+        }
+        if (r != null && w.listener != null) w.listener.accept(r);
+        return r;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        thread.interrupt();
+        watched.clear();
+    }
+
+    // --------------------
+    // Watch loop
+    // --------------------
+
+    private void run() {
+        while (!closed) {
+            Set<Path> changed = new LinkedHashSet<>();
+            try {
+                collect(watchService.take(), changed);
+                // Wait for the burst of events from one save to settle before reloading.
+                WatchKey more;
+                while ((more = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(more, changed);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            for (Path file : changed) {
+                try {
+                    reload(file);
+                } catch (IOException | RuntimeException e) {
+                    // Typically the file is mid-save or was deleted; keep serving the last good snapshot.
+                    System.err.println("❌ Error reloading " + file + ": " + e);
+                }
+            }
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                for (Path p : watched.keySet()) {
+                    if (dir.equals(p.getParent())) changed.add(p);
+                }
+            } else {
+                Path p = dir.resolve((Path) event.context());
+                if (watched.containsKey(p)) changed.add(p);
+            }
+        }
+        key.reset();
+    }
+
+    // --------------------
+    // Incremental reload
+    // --------------------
+
+    /**
+     * Re-parses the file from the first row that may have changed, decoding only rows whose
+     * hash the previous version does not have. Returns null if the content is unchanged.
+     * Caller holds the lock on {@code w}.
+     */
+    private Reload reload(Watched w) throws IOException {
+        long start = System.nanoTime();
+        QuestionBankCache.Key identity = QuestionBankCache.Key.of(w.file);
+        if (identity.equals(w.identity)) return null;
+
+        CompactQuestionBank oldBank = w.bank;
+        RowIndex old = w.rows != null ? w.rows : new RowIndex(0);
+        boolean compressed = GzipBankReader.isCompressed(w.file);
+        FileBlocks blocks = compressed ? null : blockHashes(w.file);
+
+        // Rows that end before the first changed block are kept as they are; parsing resumes
+        // where the last of them ends.
+        int keep = oldBank != null && w.blocks != null && blocks != null
+                ? old.rowsEndingBefore(firstDifference(w.blocks, blocks), w.blocks.size)
+                : 0;
+        if (keep > 0 && keep == old.count && blocks.size == w.blocks.size) {
+            w.identity = identity; // touched, not changed
+            return null;
+        }
+        long from = keep == 0 ? 0 : old.end(keep - 1, w.blocks.size);
+
+        CompactQuestionBank.Builder builder = oldBank != null ? oldBank.toBuilder(keep) : new CompactQuestionBank.Builder();
+        RowIndex rows = old.prefix(keep, old.count);
+        int tail = old.count - keep;
+        boolean[] oldUsed = new boolean[tail];
+        HashIndex[] index = new HashIndex[1];
+        int[] reused = new int[1];
+        int[] expected = { keep }; // old row that follows the last reused one
+
+        CsvQuestionParser[] parser = new CsvQuestionParser[1];
+        parser[0] = new CsvQuestionParser(builder::add, (row, hash) -> {
+            rows.add(parser[0].getRecordStart(), hash);
+
+            // Unchanged rows usually follow the previously reused one, even after an insert or
+            // delete shifted them; only fall back to the hash index when that guess misses.
+            int o = -1;
+            int guess = expected[0];
+            if (guess < old.count && old.hashes[guess] == hash) {
+                o = guess;
+            } else if (tail > 0) {
+                if (index[0] == null) index[0] = new HashIndex(old.hashes, keep, old.count);
+                o = index[0].find(hash);
+            }
+            if (o < 0) return true;
+            builder.addBaseRow(o);
+            oldUsed[o - keep] = true;
+            expected[0] = o + 1;
+            reused[0]++;
+            return false;
+        });
+        parser[0].readFile(w.file, from);
+
+        int removed = 0;
+        for (boolean used : oldUsed) {
+            if (!used) removed++;
+        }
+        CompactQuestionBank bank = builder.build();
+        if (bank.getChurn() > bank.size() / 2) {
+            // Enough rows were replaced that the pool is mostly strings nothing uses; start afresh.
+            bank = bank.compacted();
+        }
+        w.rows = rows;
+        w.blocks = blocks;
+        w.bank = bank;
+        w.identity = identity;
+        QuestionBankCache.shared().put(identity, bank);
+        int decoded = rows.count - keep - reused[0];
+        return new Reload(w.file, bank, keep + reused[0], decoded, removed, System.nanoTime() - start);
+    }
+
+    /** Offset of the first block that differs between two versions of a file. */
+    private static long firstDifference(FileBlocks before, FileBlocks after) {
+        int n = Math.min(before.hashes.length, after.hashes.length);
+        int b = 0;
+        while (b < n && before.hashes[b] == after.hashes[b]) b++;
+        return (long) b * BLOCK_SIZE;
+    }
+
+    private static FileBlocks blockHashes(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] hashes = new long[(int) ((size + BLOCK_SIZE - 1) / BLOCK_SIZE)];
+            for (long pos = 0; pos < size; pos += MAP_WINDOW) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAP_WINDOW, size - pos));
+                for (int off = 0; off < window.limit(); off += BLOCK_SIZE) {
+                    hashes[(int) ((pos + off) / BLOCK_SIZE)] = hash(window, off, Math.min(off + BLOCK_SIZE, window.limit()));
+                }
+            }
+            return new FileBlocks(size, hashes);
+        }
+    }
+
+    /** 64-bit hash of {@code buf[from, to)}, eight bytes at a time; the length is mixed in. */
+    private static long hash(MappedByteBuffer buf, int from, int to) {
+        long h = 0x27D4EB2F165667C5L ^ (to - from);
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            h = Long.rotateLeft(h + buf.getLong(i) * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B185EBCA87L;
+        }
+        for (; i < to; i++) {
+            h = Long.rotateLeft(h + (buf.get(i) & 0xff) * 0x165667B19E3779F9L, 11) * 0x9E3779B185EBCA87L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Open-addressing map from row hash to the row's index in the previous snapshot.
+     * Duplicate rows share a hash; any of them can be reused since questions are immutable.
+     */
+    private static final class HashIndex {
+        private final long[] keys;
+        private final int[] values;
+        private final boolean[] used;
+        private final int mask;
+
+        /** Indexes rows {@code [from, to)}. */
+        HashIndex(long[] hashes, int from, int to) {
+            int capacity = Integer.highestOneBit(Math.max(4, (to - from) * 2 - 1)) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+            mask = capacity - 1;
+            for (int i = from; i < to; i++) {
+                int slot = slot(hashes[i]);
+                while (used[slot] && keys[slot] != hashes[i]) slot = (slot + 1) & mask;
+                if (!used[slot]) {
+                    used[slot] = true;
+                    keys[slot] = hashes[i];
+                    values[slot] = i;
+                }
+            }
+        }
+
+        int find(long hash) {
+            int slot = slot(hash);
+            while (used[slot]) {
+                if (keys[slot] == hash) return values[slot];
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int slot(long hash) {
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
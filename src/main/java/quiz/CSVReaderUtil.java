@@ -3,34 +3,40 @@ package quiz;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import java.io.*;
+import java.nio.file.Path;
 import java.util.*;
 
 public class CSVReaderUtil {
 
     public static List<QuizQuestion> loadQuestions(Stage stage) {
-        FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Select Quiz CSV File");
-        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
-        File file = fileChooser.showOpenDialog(stage);
-
+        File file = chooseFile(stage);
         if (file == null) return Collections.emptyList();
 
-        List<QuizQuestion> questions = new ArrayList<>();
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 6) {
-                    String question = parts[0];
-                    String[] options = { parts[1], parts[2], parts[3], parts[4] };
-                    String correct = parts[5].trim();
-                    questions.add(new QuizQuestion(question, options, correct));
-                }
-            }
+        try {
+            return readQuestions(file.toPath());
         } catch (IOException e) {
             e.printStackTrace();
+            return Collections.emptyList();
         }
-        return questions;
+    }
+
+    /**
+     * Shows the quiz file chooser. Returns null if the user cancelled.
+     */
+    public static File chooseFile(Stage stage) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Select Quiz CSV File");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV Files", "*.csv", "*.csv" + GzipBankReader.EXTENSION),
+                new FileChooser.ExtensionFilter("Compiled Quiz Banks", "*" + CompiledQuestionBank.EXTENSION));
+        return fileChooser.showOpenDialog(stage);
+    }
+
+    /**
+     * Headless loader: parses every question in the file with {@link CsvQuestionParser},
+     * split across -Dquiz.parse.parallelism threads (see {@link ParallelCsvLoader}).
+     */
+    public static List<QuizQuestion> readQuestions(Path file) throws IOException {
+        return ParallelCsvLoader.readAll(file);
     }
 }
@@ -0,0 +1,353 @@
+package quiz;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory bank stored as parallel primitive arrays over a deduplicated string pool.
+ *
+ * Every distinct string (question, option, answer key, normalized answer) is kept once, and so
+ * is every distinct set of four options, so "True"/"False"/"All of the above" cost nothing per
+ * question. Per question the bank holds four int pool ids and a byte for the correct option.
+ * {@link #get(int)} returns a small flyweight {@link QuizQuestion} pointing into the pools;
+ * nothing is copied or decoded. Immutable and safe to share between threads.
+ *
+ * A new version of a bank that differs only after some row can be spliced from the old one
+ * with {@link #toBuilder(int)}: the pools and the unchanged rows' ids are carried over as they
+ * are, so only the changed rows are interned. Strings orphaned by splices stay in the pool until
+ * {@link #getChurn()} says it is worth rebuilding with {@link #compacted()}.
+ *
+ * Usage (heap report): java quiz.CompactQuestionBank bank.csv
+ */
+public final class CompactQuestionBank implements QuestionBank {
+
+    // Rough HotSpot sizes (compressed oops) for estimateBytes().
+    private static final long STRING_OVERHEAD = 24 + 16;
+    private static final long OPTION_SET_OVERHEAD = 16 + 4 * 4;
+
+    private final String[] strings;
+    private final String[][] optionSets;
+    private final int[] questionIds;
+    private final int[] optionSetIds;
+    private final int[] answerIds;
+    private final int[] normalizedIds;
+    private final byte[] correctIndices;
+    private final int count;
+    private final int churn;
+
+    private CompactQuestionBank(Builder b) {
+        this.count = b.count;
+        this.churn = b.churn();
+        this.strings = Arrays.copyOf(b.strings, b.stringCount);
+        this.optionSets = Arrays.copyOf(b.optionSets, b.optionSetCount);
+        this.questionIds = Arrays.copyOf(b.questionIds, count);
+        this.optionSetIds = Arrays.copyOf(b.optionSetIds, count);
+        this.answerIds = Arrays.copyOf(b.answerIds, count);
+        this.normalizedIds = Arrays.copyOf(b.normalizedIds, count);
+        this.correctIndices = Arrays.copyOf(b.correctIndices, count);
+    }
+
+    /**
+     * Parses a CSV bank straight into the compact layout; only one parsed row is alive at a time
+     * (or, with -Dquiz.parse.parallelism, the parallel parse is compacted afterwards).
+     */
+    public static CompactQuestionBank load(Path csv) throws IOException {
+        if (ParallelCsvLoader.DEFAULT_PARALLELISM > 1 && !GzipBankReader.isCompressed(csv)) {
+            return copyOf(ParallelCsvLoader.readAll(csv));
+        }
+        Builder builder = new Builder();
+        CsvQuestionParser.parse(csv, builder::add);
+        return builder.build();
+    }
+
+    public static CompactQuestionBank copyOf(List<QuizQuestion> questions) {
+        Builder builder = new Builder();
+        for (QuizQuestion q : questions) builder.add(q);
+        return builder.build();
+    }
+
+    /**
+     * Starts the next version of this bank from its first {@code rows} questions. The builder
+     * shares this bank's pools (copied, not re-interned), and {@link Builder#addBaseRow(int)}
+     * re-adds any row of this bank without decoding it.
+     */
+    public Builder toBuilder(int rows) {
+        if (rows < 0 || rows > count) {
+            throw new IndexOutOfBoundsException("Row count " + rows + " out of range [0, " + count + "]");
+        }
+        return new Builder(this, rows);
+    }
+
+    /**
+     * Rows added or dropped by splices since the pools were last built from scratch; the pools
+     * may hold that many rows' worth of strings that nothing uses any more.
+     */
+    public int getChurn() {
+        return churn;
+    }
+
+    /**
+     * The same questions over freshly interned pools, without strings left behind by splices.
+     */
+    public CompactQuestionBank compacted() {
+        Builder builder = new Builder();
+        for (int i = 0; i < count; i++) builder.add(get(i));
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public QuizQuestion get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Question index " + index + " out of range [0, " + count + ")");
+        }
+        return QuizQuestion.pooled(strings[questionIds[index]], optionSets[optionSetIds[index]],
+                strings[answerIds[index]], correctIndices[index], strings[normalizedIds[index]]);
+    }
+
+    /**
+     * The correct option index (0-3, or -1) without creating the question view.
+     */
+    public int getCorrectOptionIndex(int index) {
+        return correctIndices[index];
+    }
+
+    /** Distinct strings in the pool. */
+    public int getStringCount() {
+        return strings.length;
+    }
+
+    /** Distinct sets of four options. */
+    public int getOptionSetCount() {
+        return optionSets.length;
+    }
+
+    /**
+     * Approximate retained heap size in bytes.
+     */
+    public long estimateBytes() {
+        long bytes = 16L * 7 + 4L * strings.length + 4L * optionSets.length + 17L * count;
+        for (String s : strings) bytes += STRING_OVERHEAD + s.length();
+        bytes += OPTION_SET_OVERHEAD * optionSets.length;
+        return bytes;
+    }
+
+    // --------------------
+    // Builder
+    // --------------------
+
+    /**
+     * Accumulates questions, interning their strings and option sets as it goes.
+     */
+    public static final class Builder {
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final Map<OptionSet, Integer> optionSetIdsByKey = new HashMap<>();
+        private String[] strings = new String[1024];
+        private String[][] optionSets = new String[256][];
+        private int stringCount;
+        private int optionSetCount;
+
+        private int[] questionIds = new int[1024];
+        private int[] optionSetIds = new int[1024];
+        private int[] answerIds = new int[1024];
+        private int[] normalizedIds = new int[1024];
+        private byte[] correctIndices = new byte[1024];
+        private int count;
+
+        // Splices only: the bank this builder continues, how many of its rows were kept as a
+        // prefix or re-added, and how many rows were interned anew.
+        private final CompactQuestionBank base;
+        private int baseRowsUsed;
+        private int added;
+
+        public Builder() {
+            base = null;
+        }
+
+        private Builder(CompactQuestionBank base, int rows) {
+            this.base = base;
+            // New strings are interned among themselves only; matching them against the whole
+            // carried-over pool would mean hashing all of it.
+            strings = Arrays.copyOf(base.strings, base.strings.length + 1024);
+            stringCount = base.strings.length;
+            optionSets = Arrays.copyOf(base.optionSets, base.optionSets.length + 256);
+            optionSetCount = base.optionSets.length;
+            int capacity = Math.max(rows, base.count) + 1024;
+            questionIds = prefix(base.questionIds, rows, capacity);
+            optionSetIds = prefix(base.optionSetIds, rows, capacity);
+            answerIds = prefix(base.answerIds, rows, capacity);
+            normalizedIds = prefix(base.normalizedIds, rows, capacity);
+            correctIndices = new byte[capacity];
+            System.arraycopy(base.correctIndices, 0, correctIndices, 0, rows);
+            count = rows;
+            baseRowsUsed = rows;
+        }
+
+        private static int[] prefix(int[] ids, int rows, int capacity) {
+            int[] copy = new int[capacity];
+            System.arraycopy(ids, 0, copy, 0, rows);
+            return copy;
+        }
+
+        public Builder add(QuizQuestion q) {
+            ensureCapacity();
+            if (base != null) added++;
+            questionIds[count] = intern(q.getQuestion());
+            optionSetIds[count] = internOptions(q);
+            answerIds[count] = intern(q.getCorrectAnswerRaw());
+            normalizedIds[count] = intern(q.getCorrectAnswerNormalized());
+            correctIndices[count] = (byte) q.getCorrectOptionIndex();
+            count++;
+            return this;
+        }
+
+        /**
+         * Appends row {@code index} of the bank this builder was started from by
+         * {@link CompactQuestionBank#toBuilder(int)}, reusing its pooled strings.
+         */
+        public Builder addBaseRow(int index) {
+            if (base == null) {
+                throw new IllegalStateException("Builder was not started from a bank");
+            }
+            ensureCapacity();
+            questionIds[count] = base.questionIds[index];
+            optionSetIds[count] = base.optionSetIds[index];
+            answerIds[count] = base.answerIds[index];
+            normalizedIds[count] = base.normalizedIds[index];
+            correctIndices[count] = base.correctIndices[index];
+            count++;
+            baseRowsUsed++;
+            return this;
+        }
+
+        private void ensureCapacity() {
+            if (count == questionIds.length) {
+                int capacity = count * 2;
+                questionIds = Arrays.copyOf(questionIds, capacity);
+                optionSetIds = Arrays.copyOf(optionSetIds, capacity);
+                answerIds = Arrays.copyOf(answerIds, capacity);
+                normalizedIds = Arrays.copyOf(normalizedIds, capacity);
+                correctIndices = Arrays.copyOf(correctIndices, capacity);
+            }
+        }
+
+        private int churn() {
+            if (base == null) return 0;
+            return base.churn + added + Math.max(0, base.count - baseRowsUsed);
+        }
+
+        /** Number of questions added so far. */
+        public int size() {
+            return count;
+        }
+
+        /** View of a question added so far, like {@link CompactQuestionBank#get(int)}. */
+        public QuizQuestion get(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Question index " + index + " out of range [0, " + count + ")");
+            }
+            return QuizQuestion.pooled(strings[questionIds[index]], optionSets[optionSetIds[index]],
+                    strings[answerIds[index]], correctIndices[index], strings[normalizedIds[index]]);
+        }
+
+        public CompactQuestionBank build() {
+            return new CompactQuestionBank(this);
+        }
+
+        private int intern(String s) {
+            Integer id = stringIds.get(s);
+            if (id != null) return id;
+            if (stringCount == strings.length) strings = Arrays.copyOf(strings, stringCount * 2);
+            strings[stringCount] = s;
+            stringIds.put(s, stringCount);
+            return stringCount++;
+        }
+
+        private int internOptions(QuizQuestion q) {
+            OptionSet key = new OptionSet(intern(q.getOption(0)), intern(q.getOption(1)),
+                    intern(q.getOption(2)), intern(q.getOption(3)));
+            Integer id = optionSetIdsByKey.get(key);
+            if (id != null) return id;
+            if (optionSetCount == optionSets.length) optionSets = Arrays.copyOf(optionSets, optionSetCount * 2);
+            optionSets[optionSetCount] = new String[] {
+                    strings[key.a], strings[key.b], strings[key.c], strings[key.d] };
+            optionSetIdsByKey.put(key, optionSetCount);
+            return optionSetCount++;
+        }
+    }
+
+    private static final class OptionSet {
+        final int a, b, c, d;
+
+        OptionSet(int a, int b, int c, int d) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.d = d;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof OptionSet)) return false;
+            OptionSet k = (OptionSet) o;
+            return a == k.a && b == k.b && c == k.c && d == k.d;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((a * 31 + b) * 31 + c) * 31 + d;
+        }
+    }
+
+    // --------------------
+    // Heap report
+    // --------------------
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: CompactQuestionBank <bank.csv>");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        long before = usedHeap(memory);
+        List<QuizQuestion> objects = CsvQuestionParser.readAll(file);
+        QuestionBank listBank = QuestionBank.of(objects);
+        objects = null;
+        long listBytes = usedHeap(memory) - before;
+        int rows = listBank.size();
+        listBank = null;
+
+        before = usedHeap(memory);
+        CompactQuestionBank compact = load(file);
+        long compactBytes = usedHeap(memory) - before;
+
+        double perMillion = 1_000_000.0 / Math.max(1, rows) / (1024 * 1024);
+        System.out.printf("%,d questions from %s%n", rows, file.getFileName());
+        System.out.printf("%-22s %12s %16s%n", "layout", "heap MB", "MB per million");
+        System.out.printf("%-22s %12.1f %16.1f%n", "QuizQuestion objects", listBytes / 1048576.0, listBytes * perMillion);
+        System.out.printf("%-22s %12.1f %16.1f%n", "compact", compactBytes / 1048576.0, compactBytes * perMillion);
+        System.out.printf("Saved %.0f%%; %,d distinct strings, %,d distinct option sets (estimate %.1f MB)%n",
+                100.0 * (listBytes - compactBytes) / listBytes, compact.getStringCount(),
+                compact.getOptionSetCount(), compact.estimateBytes() / 1048576.0);
+    }
+
+    private static long usedHeap(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
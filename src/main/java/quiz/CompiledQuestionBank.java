@@ -0,0 +1,106 @@
+package quiz;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped view of a bank produced by {@link QuestionBankCompiler}.
+ *
+ * Opening a bank only maps the file and validates the header; each {@link QuizQuestion}
+ * is decoded when {@link #get(int)} asks for it, so heap use does not grow with bank size.
+ * Instances are immutable and safe to share between threads.
+ */
+public class CompiledQuestionBank implements QuestionBank {
+
+    static final int MAGIC = 0x515A4231; // "QZB1"
+    static final int HEADER_SIZE = 16;
+    static final long SEGMENT_SIZE = 1L << 30;
+
+    /** File extension used for compiled banks. */
+    public static final String EXTENSION = ".qzb";
+
+    private final MappedByteBuffer[] segments;
+    private final int count;
+    private final long tableOffset;
+
+    private CompiledQuestionBank(MappedByteBuffer[] segments, int count, long tableOffset) {
+        this.segments = segments;
+        this.count = count;
+        this.tableOffset = tableOffset;
+    }
+
+    public static CompiledQuestionBank open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a compiled question bank: " + file);
+            }
+            int segmentCount = (int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long pos = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(SEGMENT_SIZE, size - pos));
+            }
+
+            MappedByteBuffer first = segments[0];
+            if (first.getInt(0) != MAGIC) {
+                throw new IOException("Not a compiled question bank: " + file);
+            }
+            int count = first.getInt(4);
+            long tableOffset = first.getLong(8);
+            if (count < 0 || tableOffset < HEADER_SIZE || tableOffset + 8L * count > size) {
+                throw new IOException("Corrupt compiled question bank: " + file);
+            }
+            return new CompiledQuestionBank(segments, count, tableOffset);
+        }
+    }
+
+    public static boolean isCompiledBank(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(EXTENSION);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public QuizQuestion get(int index) {
+        long offset = recordOffset(index);
+        MappedByteBuffer seg = segments[(int) (offset / SEGMENT_SIZE)];
+        int pos = (int) (offset % SEGMENT_SIZE);
+        int correctIndex = seg.get(pos++);
+
+        String[] fields = new String[6];
+        for (int i = 0; i < fields.length; i++) {
+            int len = seg.getInt(pos);
+            byte[] bytes = new byte[len];
+            seg.get(pos + 4, bytes);
+            fields[i] = new String(bytes, StandardCharsets.UTF_8);
+            pos += 4 + len;
+        }
+        String[] options = { fields[1], fields[2], fields[3], fields[4] };
+        return new QuizQuestion(fields[0], options, fields[5], correctIndex);
+    }
+
+    /**
+     * Returns the pre-resolved correct option index (0-3) without decoding the question,
+     * or -1 if the answer key did not match any option.
+     */
+    public int getCorrectOptionIndex(int index) {
+        long offset = recordOffset(index);
+        return segments[(int) (offset / SEGMENT_SIZE)].get((int) (offset % SEGMENT_SIZE));
+    }
+
+    private long recordOffset(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Question index " + index + " out of range [0, " + count + ")");
+        }
+        long entry = tableOffset + 8L * index;
+        return segments[(int) (entry / SEGMENT_SIZE)].getLong((int) (entry % SEGMENT_SIZE));
+    }
+}
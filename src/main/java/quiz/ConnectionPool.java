@@ -0,0 +1,166 @@
+package quiz;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small fixed-size JDBC connection pool with a per-connection prepared-statement cache.
+ *
+ * Connections are opened lazily (up to {@code maxSize}) through the supplied factory and
+ * kept open until {@link #close()}. Borrowers must close the {@link PooledConnection} to
+ * return it; statements obtained from {@link PooledConnection#prepare(String)} belong to
+ * the pool and must not be closed by the caller.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /** Opens a new physical connection (already configured). */
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final BlockingQueue<PooledConnection> idle;
+    private final List<PooledConnection> all = new ArrayList<>();
+    private boolean closed = false;
+
+    public ConnectionPool(ConnectionFactory factory, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.idle = new ArrayBlockingQueue<>(maxSize);
+    }
+
+    /**
+     * Borrows an idle connection, opening a new one if the pool is not yet full,
+     * otherwise waiting for one to be returned.
+     */
+    public PooledConnection borrow() throws SQLException {
+        PooledConnection pc = idle.poll();
+        if (pc != null) return pc;
+
+        synchronized (this) {
+            if (closed) throw new SQLException("Connection pool is closed");
+            if (all.size() < maxSize) {
+                pc = new PooledConnection(factory.open());
+                all.add(pc);
+                return pc;
+            }
+        }
+
+        try {
+            pc = idle.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        if (pc == null) {
+            throw new SQLException("Timed out waiting for a pooled connection");
+        }
+        return pc;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private void release(PooledConnection pc) {
+        boolean usable;
+        try {
+            if (!pc.connection.getAutoCommit()) {
+                pc.connection.rollback();
+                pc.connection.setAutoCommit(true);
+            }
+            usable = !pc.connection.isClosed();
+        } catch (SQLException e) {
+            usable = false;
+        }
+
+        synchronized (this) {
+            if (usable && !closed) {
+                idle.offer(pc);
+                return;
+            }
+            all.remove(pc);
+        }
+        pc.closePhysical();
+    }
+
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(all);
+            all.clear();
+            idle.clear();
+        }
+        for (PooledConnection pc : toClose) {
+            pc.closePhysical();
+        }
+    }
+
+    /**
+     * A borrowed connection. {@link #close()} returns it to the pool.
+     */
+    public class PooledConnection implements AutoCloseable {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        public Connection connection() {
+            return connection;
+        }
+
+        /**
+         * Returns a cached prepared statement for the SQL, preparing it on first use.
+         * Parameters from a previous use are cleared.
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement ps = statements.get(sql);
+            if (ps == null || ps.isClosed()) {
+                ps = connection.prepareStatement(sql);
+                statements.put(sql, ps);
+            } else {
+                ps.clearParameters();
+            }
+            return ps;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+
+        private void closePhysical() {
+            for (PreparedStatement ps : statements.values()) {
+                try {
+                    ps.close();
+                } catch (SQLException ignored) {
+                }
+            }
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("❌ Error closing pooled connection:");
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package quiz;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Headless, streaming RFC 4180 parser for quiz CSV files.
+ *
+ * Expected CSV format (one question per record):
+ * Question,OptionA,OptionB,OptionC,OptionD,CorrectAnswer
+ *
+ * The parser is a push-style byte state machine: callers {@link #feed(ByteBuffer)} it
+ * any number of buffers and then {@link #finish()} it. Quoted fields may contain commas,
+ * line breaks and doubled quotes ("") and may span buffer boundaries. No regexes are used
+ * and a record's bytes are decoded to Strings only once the record is complete.
+ *
+ * Records that do not have exactly six fields are skipped (and counted), matching the
+ * behaviour of the original line-based loader. Blank lines are ignored.
+ *
+ * An optional {@link RecordFilter} sees each valid record's index and content hash before it
+ * is decoded and can veto decoding, so callers that only need some rows pay for those alone.
+ * {@link #getRecordStart()} gives the record's byte offset, from which a later parse can
+ * resume with {@link #readFile(Path, long)}.
+ */
+public class CsvQuestionParser {
+
+    /** Number of fields in a valid question record. */
+    public static final int FIELD_COUNT = 6;
+
+    /** Files are mapped in windows of this size so banks larger than 2 GB can be read. */
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+
+    private static final int FEED_SLICE = 1024 * 1024;
+
+    private enum State { FIELD_START, UNQUOTED, QUOTED, QUOTE_IN_QUOTED }
+
+    /**
+     * Called for every valid record before it is decoded.
+     */
+    public interface RecordFilter {
+        /**
+         * @param rowIndex index of the record among valid records (0-based)
+         * @param rowHash  64-bit hash of the record's unescaped field contents; equal rows
+         *                 hash equally regardless of quoting or line endings
+         * @return true to decode the record and pass it to the sink, false to skip it
+         */
+        boolean accept(long rowIndex, long rowHash);
+    }
+
+    private static final long HASH_SEED = 0xcbf29ce484222325L;
+    private static final long HASH_PRIME = 0x100000001b3L;
+
+    private final Consumer<QuizQuestion> sink;
+    private final RecordFilter filter;
+
+    // Unescaped bytes of the current record; fieldEnds[i] is the end offset of field i.
+    private byte[] record = new byte[256];
+    private int recordLength = 0;
+    private final int[] fieldEnds = new int[FIELD_COUNT];
+    private int fieldCount = 0;
+    private boolean recordHasContent = false;
+
+    private State state = State.FIELD_START;
+    private boolean atStart = true;
+    private int bomMatched = 0;
+
+    private long bytesConsumed = 0;
+    private long startOffset = 0;   // file offset of the first byte fed
+    private ByteBuffer current;     // buffer being fed, and the file offset of its index 0
+    private long currentBase;
+    private long recordStart = 0;
+    private long fileBytesRead = 0;
+    private long rowsParsed = 0;
+    private long rowsSkipped = 0;
+    private long rowsFiltered = 0;
+    private long irregularQuotes = 0;
+
+    public CsvQuestionParser(Consumer<QuizQuestion> sink) {
+        this(sink, null);
+    }
+
+    public CsvQuestionParser(Consumer<QuizQuestion> sink, RecordFilter filter) {
+        this.sink = sink;
+        this.filter = filter;
+    }
+
+    /**
+     * Parses the whole file, memory-mapping it window by window (or inflating it alongside,
+     * for .gz files; see {@link GzipBankReader}), and passes each question to the sink. Returns the parser so callers can inspect the counters.
+     */
+    public static CsvQuestionParser parse(Path file, Consumer<QuizQuestion> sink) throws IOException {
+        CsvQuestionParser parser = new CsvQuestionParser(sink);
+        parser.readFile(file);
+        return parser;
+    }
+
+    /**
+     * Parses the whole file into a list.
+     */
+    public static List<QuizQuestion> readAll(Path file) throws IOException {
+        List<QuizQuestion> questions = new ArrayList<>();
+        parse(file, questions::add);
+        return questions;
+    }
+
+    /**
+     * Feeds the whole file to this parser and finishes it. The mapped windows are fed in
+     * {@link #FEED_SLICE} pieces so {@link #getBytesConsumed()} advances smoothly for
+     * callers reporting progress from the sink.
+     */
+    public void readFile(Path file) throws IOException {
+        readFile(file, 0);
+    }
+
+    /**
+     * Like {@link #readFile(Path)}, but starts at byte {@code from}, which must be a record start
+     * reported by {@link #getRecordStart()} for the same content. Offsets stay relative to the
+     * start of the file. Compressed files can only be read from the start.
+     */
+    public void readFile(Path file, long from) throws IOException {
+        if (bytesConsumed != 0) {
+            throw new IllegalStateException("Parser has already been fed");
+        }
+        startOffset = from;
+        recordStart = from;
+        if (from > 0) startMidFile();
+        if (GzipBankReader.isCompressed(file)) {
+            if (from != 0) {
+                throw new IllegalArgumentException("Compressed banks can only be read from the start");
+            }
+            GzipBankReader.read(file, (buf, filePosition) -> {
+                fileBytesRead = filePosition;
+                feed(buf);
+            });
+            finish();
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long pos = from; pos < size; pos += MAP_WINDOW) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAP_WINDOW, size - pos));
+                for (int off = 0; off < window.limit(); off += FEED_SLICE) {
+                    fileBytesRead = pos + Math.min(off + FEED_SLICE, window.limit());
+                    feed(window.slice(off, Math.min(FEED_SLICE, window.limit() - off)));
+                }
+            }
+        }
+        finish();
+    }
+
+    /**
+     * Consumes all remaining bytes of the buffer.
+     */
+    public void feed(ByteBuffer buf) {
+        current = buf;
+        currentBase = startOffset + bytesConsumed - buf.position();
+        bytesConsumed += buf.remaining();
+        if (atStart) {
+            skipBom(buf);
+        }
+        while (buf.hasRemaining()) {
+            byte b = buf.get();
+            switch (state) {
+                case FIELD_START:
+                    if (b == '"') {
+                        state = State.QUOTED;
+                        recordHasContent = true;
+                    } else if (b == ',') {
+                        endField();
+                    } else if (b == '\n') {
+                        endRecord();
+                    } else if (b != '\r') {
+                        append(b);
+                        state = State.UNQUOTED;
+                    }
+                    break;
+                case UNQUOTED:
+                    if (b == ',') {
+                        endField();
+                        state = State.FIELD_START;
+                    } else if (b == '\n') {
+                        endRecord();
+                        state = State.FIELD_START;
+                    } else if (b != '\r') {
+                        if (b == '"') irregularQuotes++;
+                        append(b);
+                    }
+                    break;
+                case QUOTED:
+                    if (b == '"') {
+                        state = State.QUOTE_IN_QUOTED;
+                    } else {
+                        append(b);
+                    }
+                    break;
+                case QUOTE_IN_QUOTED:
+                    if (b == '"') {
+                        // Escaped quote ("") inside a quoted field.
+                        append(b);
+                        state = State.QUOTED;
+                    } else if (b == ',') {
+                        endField();
+                        state = State.FIELD_START;
+                    } else if (b == '\n') {
+                        endRecord();
+                        state = State.FIELD_START;
+                    } else if (b != '\r') {
+                        // Lenient: text after a closing quote is kept as part of the field.
+                        append(b);
+                        state = State.UNQUOTED;
+                    }
+                    break;
+            }
+        }
+        current = null;
+    }
+
+    /**
+     * Flushes a final record that is not terminated by a line break.
+     */
+    public void finish() {
+        if (state != State.FIELD_START || recordHasContent || fieldCount > 0) {
+            endRecord();
+        }
+        state = State.FIELD_START;
+    }
+
+    /**
+     * File offset where the record being passed to the {@link RecordFilter} or sink starts: just
+     * after the previous record or blank line (the start of the input, BOM included, for the
+     * first one). Outside those callbacks, where the next record starts. For compressed files
+     * this is an offset into the decompressed content.
+     */
+    public long getRecordStart() {
+        return recordStart;
+    }
+
+    /** Total number of input bytes fed so far. */
+    public long getBytesConsumed() {
+        return bytesConsumed;
+    }
+
+    /**
+     * Bytes of the file read so far by {@link #readFile(Path)}. Same as
+     * {@link #getBytesConsumed()} except for compressed files, where it counts compressed bytes.
+     */
+    public long getFileBytesRead() {
+        return fileBytesRead;
+    }
+
+    /** Number of valid question records emitted so far. */
+    public long getRowsParsed() {
+        return rowsParsed;
+    }
+
+    /** Number of non-blank records skipped because they did not have six fields. */
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    /** Number of valid records the {@link RecordFilter} chose not to decode (included in rows parsed). */
+    public long getRowsFiltered() {
+        return rowsFiltered;
+    }
+
+    /**
+     * Number of literal quotes seen inside unquoted fields (accepted by the lenient rules).
+     * Such quotes break quote-parity reasoning about where records start.
+     */
+    long getIrregularQuotes() {
+        return irregularQuotes;
+    }
+
+    /**
+     * True if the bytes fed so far end exactly at a record boundary.
+     */
+    boolean isAtRecordBoundary() {
+        return state == State.FIELD_START && !recordHasContent && fieldCount == 0;
+    }
+
+    /**
+     * Marks the input as starting mid-file, so a leading byte-order mark is treated as data.
+     */
+    void startMidFile() {
+        atStart = false;
+    }
+
+    // --------------------
+    // State machine helpers
+    // --------------------
+
+    private void skipBom(ByteBuffer buf) {
+        final byte[] bom = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+        while (buf.hasRemaining() && bomMatched < bom.length) {
+            if (buf.get(buf.position()) != bom[bomMatched]) {
+                // Not a BOM: replay any partially matched prefix as data.
+                for (int i = 0; i < bomMatched; i++) {
+                    append(bom[i]);
+                    state = State.UNQUOTED;
+                }
+                atStart = false;
+                return;
+            }
+            buf.get();
+            bomMatched++;
+        }
+        if (bomMatched == bom.length) {
+            atStart = false;
+        }
+    }
+
+    private void append(byte b) {
+        if (recordLength == record.length) {
+            record = Arrays.copyOf(record, record.length * 2);
+        }
+        record[recordLength++] = b;
+        recordHasContent = true;
+    }
+
+    private void endField() {
+        if (fieldCount < FIELD_COUNT) {
+            fieldEnds[fieldCount] = recordLength;
+        }
+        fieldCount++;
+        recordHasContent = true;
+    }
+
+    private void endRecord() {
+        atStart = false;
+        if (!recordHasContent && fieldCount == 0) {
+            recordStart = offset();
+            return; // blank line
+        }
+        endField();
+        if (fieldCount == FIELD_COUNT) {
+            long row = rowsParsed++;
+            if (filter == null || filter.accept(row, recordHash())) {
+                sink.accept(toQuestion());
+            } else {
+                rowsFiltered++;
+            }
+        } else {
+            rowsSkipped++;
+        }
+        recordLength = 0;
+        fieldCount = 0;
+        recordHasContent = false;
+        recordStart = offset();
+    }
+
+    /** File offset of the next byte to be consumed. */
+    private long offset() {
+        return current != null ? currentBase + current.position() : startOffset + bytesConsumed;
+    }
+
+    /**
+     * FNV-1a over the record bytes, with the field boundaries mixed in so that
+     * moving a comma changes the hash.
+     */
+    private long recordHash() {
+        long h = HASH_SEED;
+        int field = 0;
+        for (int i = 0; i < recordLength; i++) {
+            while (field < FIELD_COUNT && fieldEnds[field] == i) {
+                h = (h ^ 0x100) * HASH_PRIME;
+                field++;
+            }
+            h = (h ^ (record[i] & 0xff)) * HASH_PRIME;
+        }
+        for (; field < FIELD_COUNT; field++) {
+            h = (h ^ 0x100) * HASH_PRIME;
+        }
+        return h ^ (h >>> 29);
+    }
+
+    private QuizQuestion toQuestion() {
+        String question = field(0);
+        String[] options = { field(1), field(2), field(3), field(4) };
+        return new QuizQuestion(question, options, field(5));
+    }
+
+    private String field(int i) {
+        int start = i == 0 ? 0 : fieldEnds[i - 1];
+        return new String(record, start, fieldEnds[i] - start, StandardCharsets.UTF_8);
+    }
+}
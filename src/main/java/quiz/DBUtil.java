@@ -1,28 +1,470 @@
 package quiz;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class DBUtil {
 
-    // ✅ Update these values for your setup:
-    private static final String DB_URL = "jdbc:sqlite:identifier.sqlite";
+    // ✅ Update these values for your setup (or override with -Dquiz.db.* system properties):
+    private static final String DB_URL = System.getProperty("quiz.db.url", "jdbc:sqlite:identifier.sqlite");
+    private static final int POOL_SIZE = Integer.getInteger("quiz.db.poolSize", 4);
 
+    // SQLite pragmas applied to every new connection.
+    private static final String JOURNAL_MODE = System.getProperty("quiz.db.journalMode", "WAL");
+    private static final String SYNCHRONOUS = System.getProperty("quiz.db.synchronous", "NORMAL");
+    private static final int CACHE_SIZE_KB = Integer.getInteger("quiz.db.cacheSizeKb", 8192);
+    private static final int BUSY_TIMEOUT_MS = Integer.getInteger("quiz.db.busyTimeoutMs", 5000);
+
+    // Write-behind batching for saveResultAsync.
+    private static final int BATCH_SIZE = Integer.getInteger("quiz.db.batchSize", 256);
+    private static final long BATCH_DELAY_MS = Long.getLong("quiz.db.batchDelayMs", 20);
+    private static final int QUEUE_CAPACITY = Integer.getInteger("quiz.db.queueCapacity", 10_000);
+
+    // Result backend (see ResultStore): sqlite, h2 or mmap.
+    private static final String STORE = System.getProperty("quiz.store", "sqlite");
+    private static final String H2_URL = System.getProperty("quiz.store.h2.url", "jdbc:h2:./quiz-results");
+    private static final String MMAP_FILE = System.getProperty("quiz.store.mmap.file", "quiz-results.qzs");
+
+    // Maximum number of entries kept by the in-memory ranked leaderboard.
+    private static final int RANKED_CAPACITY = Integer.getInteger("quiz.leaderboard.cacheSize", 100_000);
+
+    static final String INSERT_RESULT_SQL =
+            "INSERT INTO results (username, score, quiz_date) VALUES (?, ?, ?)";
+    private static final String LEADERBOARD_SQL =
+            "SELECT rowid, username, score, quiz_date FROM results ORDER BY score DESC, quiz_date ASC, rowid ASC";
+
+    // Both queries walk idx_results_rank in order and stop after LIMIT rows.
+    // SQLite appends the rowid to every index entry, so it is a free final tie-breaker.
+    private static final String TOP_SQL =
+            "SELECT rowid, username, score, quiz_date FROM results "
+                    + "ORDER BY score DESC, quiz_date ASC, rowid ASC LIMIT ?";
+    private static final String PAGE_AFTER_SQL =
+            "SELECT rowid, username, score, quiz_date FROM results "
+                    + "WHERE score <= ? AND (score < ? OR quiz_date > ? OR (quiz_date = ? AND rowid > ?)) "
+                    + "ORDER BY score DESC, quiz_date ASC, rowid ASC LIMIT ?";
+
+    // Period keys for the summary tables, as local dates ('YYYY-MM-DD'); weeks start on Monday.
+    private static final String DAY_OF_NEW = "date(NEW.quiz_date / 1000, 'unixepoch', 'localtime')";
+    private static final String WEEK_OF_NEW = "date(NEW.quiz_date / 1000, 'unixepoch', 'localtime', 'weekday 0', '-6 days')";
+    private static final String DAY_OF_ROW = DAY_OF_NEW.replace("NEW.", "");
+    private static final String WEEK_OF_ROW = WEEK_OF_NEW.replace("NEW.", "");
+
+    // A new result replaces a best one with a higher score, or the same score earlier.
+    private static final String BEATS_BEST =
+            "(NEW.score > best_score OR (NEW.score = best_score AND NEW.quiz_date < best_date))";
+
+    private static final String RANK_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS idx_results_rank ON results (score DESC, quiz_date ASC)";
+
+    private static final String SUMMARY_TRIGGER_SQL =
+            "CREATE TRIGGER IF NOT EXISTS trg_results_summaries AFTER INSERT ON results BEGIN "
+                    + "INSERT INTO user_best (username, best_score, best_date, best_id, attempts, last_played) "
+                    + "VALUES (NEW.username, NEW.score, NEW.quiz_date, NEW.rowid, 1, NEW.quiz_date) "
+                    + "ON CONFLICT (username) DO UPDATE SET attempts = attempts + 1, "
+                    + "last_played = max(last_played, excluded.last_played); "
+                    + "UPDATE user_best SET best_score = NEW.score, best_date = NEW.quiz_date, best_id = NEW.rowid "
+                    + "WHERE username = NEW.username AND " + BEATS_BEST + "; "
+                    + upsertPeriodBest("daily_best", "day", DAY_OF_NEW)
+                    + upsertPeriodBest("weekly_best", "week", WEEK_OF_NEW)
+                    + "END";
+
+    // Fill the (empty) summary tables from the whole history. Rows arrive best first within each
+    // key, so the first insert is the best result and the rest only count attempts; one sort
+    // and sequential b-tree appends, about twice as fast as ranking with window functions.
+    private static final String[] SUMMARY_BACKFILL_SQL = {
+            "INSERT INTO user_best (username, best_score, best_date, best_id, attempts, last_played) "
+                    + "SELECT username, score, quiz_date, rowid, 1, quiz_date FROM results "
+                    + "ORDER BY username, score DESC, quiz_date ASC, rowid ASC "
+                    + "ON CONFLICT (username) DO UPDATE SET attempts = attempts + 1, "
+                    + "last_played = max(last_played, excluded.last_played)",
+            backfillPeriodBest("daily_best", "day", DAY_OF_ROW),
+            backfillPeriodBest("weekly_best", "week", WEEK_OF_ROW)
+    };
+
+    /**
+     * Schema migrations; entry i brings the database to version i + 1 (tracked in PRAGMA user_version).
+     */
+    private static final String[][] MIGRATIONS = {
+            {
+                    "CREATE TABLE IF NOT EXISTS results ("
+                            + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                            + "username TEXT NOT NULL, "
+                            + "score INTEGER NOT NULL, "
+                            + "quiz_date TIMESTAMP NOT NULL)"
+            },
+            {
+                    RANK_INDEX_SQL
+            },
+            {
+                    // Per-question aggregates of the answer log (see AnswerLog), and how far
+                    // into each log they are up to date.
+                    "CREATE TABLE IF NOT EXISTS question_stats ("
+                            + "bank_id INTEGER NOT NULL, "
+                            + "question INTEGER NOT NULL, "
+                            + "attempts INTEGER NOT NULL, "
+                            + "correct INTEGER NOT NULL, "
+                            + "option_a INTEGER NOT NULL, "
+                            + "option_b INTEGER NOT NULL, "
+                            + "option_c INTEGER NOT NULL, "
+                            + "option_d INTEGER NOT NULL, "
+                            + "total_ms INTEGER NOT NULL, "
+                            + "latency BLOB NOT NULL, "
+                            + "PRIMARY KEY (bank_id, question)) WITHOUT ROWID",
+                    "CREATE TABLE IF NOT EXISTS answer_log_checkpoint ("
+                            + "log_id INTEGER PRIMARY KEY, "
+                            + "bytes_applied INTEGER NOT NULL)"
+            },
+            {
+                    // Leaderboard summaries: each player's best result overall, per day and per
+                    // week (keyed by the week's Monday), kept current by a trigger on results so
+                    // every view is an index range scan. Days follow the local time zone;
+                    // quiz_date holds epoch milliseconds (the sqlite-jdbc default).
+                    "CREATE TABLE IF NOT EXISTS user_best ("
+                            + "username TEXT PRIMARY KEY, "
+                            + "best_score INTEGER NOT NULL, "
+                            + "best_date TIMESTAMP NOT NULL, "
+                            + "best_id INTEGER NOT NULL, "
+                            + "attempts INTEGER NOT NULL, "
+                            + "last_played TIMESTAMP NOT NULL) WITHOUT ROWID",
+                    "CREATE INDEX IF NOT EXISTS idx_user_best_rank ON user_best (best_score DESC, best_date ASC, best_id ASC)",
+                    periodTable("daily_best", "day"),
+                    "CREATE INDEX IF NOT EXISTS idx_daily_best_rank ON daily_best (day, best_score DESC, best_date ASC, best_id ASC)",
+                    periodTable("weekly_best", "week"),
+                    "CREATE INDEX IF NOT EXISTS idx_weekly_best_rank ON weekly_best (week, best_score DESC, best_date ASC, best_id ASC)",
+                    SUMMARY_TRIGGER_SQL,
+                    // One-time backfill from the existing history.
+                    SUMMARY_BACKFILL_SQL[0],
+                    SUMMARY_BACKFILL_SQL[1],
+                    SUMMARY_BACKFILL_SQL[2]
+            },
+            {
+                    // Bank ids became 64-bit hashes of the bank's path (see AnswerLog.bankId).
+                    // Stats under the old per-file-name ids mixed same-named banks and cannot
+                    // be split again, so they start over along with the (new) answer log.
+                    "DELETE FROM question_stats",
+                    "DELETE FROM answer_log_checkpoint"
+            },
+    };
+
+    private static final String UPSERT_QUESTION_STATS_SQL =
+            "INSERT OR REPLACE INTO question_stats (bank_id, question, attempts, correct, "
+                    + "option_a, option_b, option_c, option_d, total_ms, latency) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String LOAD_QUESTION_STATS_SQL =
+            "SELECT bank_id, question, attempts, correct, option_a, option_b, option_c, option_d, total_ms, latency "
+                    + "FROM question_stats";
+    private static final String UPSERT_CHECKPOINT_SQL =
+            "INSERT OR REPLACE INTO answer_log_checkpoint (log_id, bytes_applied) VALUES (?, ?)";
+    private static final String LOAD_CHECKPOINT_SQL =
+            "SELECT bytes_applied FROM answer_log_checkpoint WHERE log_id = ?";
+
+    private static final String BEST_PER_USER_SQL =
+            "SELECT best_id, username, best_score, best_date FROM user_best "
+                    + "ORDER BY best_score DESC, best_date ASC, best_id ASC LIMIT ?";
+    private static final String PLAYER_SUMMARY_SQL =
+            "SELECT best_id, username, best_score, best_date, attempts, last_played FROM user_best WHERE username = ?";
+    private static final String DAILY_TOP_SQL =
+            "SELECT best_id, username, best_score, best_date FROM daily_best WHERE day = ? "
+                    + "ORDER BY best_score DESC, best_date ASC, best_id ASC LIMIT ?";
+    private static final String WEEKLY_TOP_SQL =
+            "SELECT best_id, username, best_score, best_date FROM weekly_best WHERE week = ? "
+                    + "ORDER BY best_score DESC, best_date ASC, best_id ASC LIMIT ?";
+
+    private static ConnectionPool pool;
+    private static ResultStore store;
+    private static ResultWriter writer;
+    private static volatile RankedLeaderboard ranked;
+
+    // Warm-up of the ranked leaderboard: one thread loads it from the store while saves that
+    // commit meanwhile are buffered in pendingRanked (non-null only while warming). Both fields
+    // and rankedGeneration are guarded by RANKED_LOCK; RANKED_WARMUP admits one loader at a time.
+    private static final Object RANKED_LOCK = new Object();
+    private static final Object RANKED_WARMUP = new Object();
+    private static List<LeaderboardEntry> pendingRanked;
+    private static long rankedGeneration;
+
+    /**
+     * Opens a new, unpooled connection with the configured pragmas applied.
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL);
+        Connection conn = DriverManager.getConnection(DB_URL);
+        if (DB_URL.startsWith("jdbc:sqlite:")) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA journal_mode=" + JOURNAL_MODE);
+                stmt.execute("PRAGMA synchronous=" + SYNCHRONOUS);
+                // Negative cache_size is in KiB rather than pages.
+                stmt.execute("PRAGMA cache_size=-" + CACHE_SIZE_KB);
+                stmt.execute("PRAGMA busy_timeout=" + BUSY_TIMEOUT_MS);
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+        }
+        return conn;
+    }
+
+    /**
+     * Shared connection pool, created on first use.
+     */
+    public static synchronized ConnectionPool pool() {
+        if (pool == null) {
+            pool = new ConnectionPool(DBUtil::getConnection, POOL_SIZE);
+            try (ConnectionPool.PooledConnection conn = pool.borrow()) {
+                migrate(conn.connection());
+            } catch (SQLException e) {
+                System.err.println("❌ Error migrating database schema:");
+                e.printStackTrace();
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * The result backend chosen by -Dquiz.store, opened on first use.
+     */
+    public static synchronized ResultStore store() throws SQLException {
+        if (store == null) {
+            store = openStore(STORE);
+        }
+        return store;
+    }
+
+    /** True if results go to the SQLite results table, which bulk transfer reads. */
+    static boolean isSqliteStore() {
+        return STORE.equals("sqlite");
+    }
+
+    private static ResultStore openStore(String kind) throws SQLException {
+        switch (kind) {
+            case "sqlite":
+                return new SqliteStore();
+            case "h2":
+                return new H2ResultStore(H2_URL, POOL_SIZE);
+            case "mmap":
+                try {
+                    return MappedResultStore.open(Paths.get(MMAP_FILE));
+                } catch (IOException e) {
+                    throw new SQLException("Cannot open result store " + MMAP_FILE, e);
+                }
+            default:
+                throw new SQLException("Unknown result store '" + kind + "' (expected sqlite, h2 or mmap)");
+        }
+    }
+
+    private static String periodTable(String table, String period) {
+        return "CREATE TABLE IF NOT EXISTS " + table + " ("
+                + period + " TEXT NOT NULL, "
+                + "username TEXT NOT NULL, "
+                + "best_score INTEGER NOT NULL, "
+                + "best_date TIMESTAMP NOT NULL, "
+                + "best_id INTEGER NOT NULL, "
+                + "attempts INTEGER NOT NULL, "
+                + "PRIMARY KEY (" + period + ", username)) WITHOUT ROWID";
+    }
+
+    /** Trigger body statements folding NEW into a per-period best table. */
+    private static String upsertPeriodBest(String table, String period, String key) {
+        return "INSERT INTO " + table + " (" + period + ", username, best_score, best_date, best_id, attempts) "
+                + "VALUES (" + key + ", NEW.username, NEW.score, NEW.quiz_date, NEW.rowid, 1) "
+                + "ON CONFLICT (" + period + ", username) DO UPDATE SET attempts = attempts + 1; "
+                + "UPDATE " + table + " SET best_score = NEW.score, best_date = NEW.quiz_date, best_id = NEW.rowid "
+                + "WHERE " + period + " = " + key + " AND username = NEW.username AND " + BEATS_BEST + "; ";
+    }
+
+    /** Backfill of a per-period best table from results; see SUMMARY_BACKFILL_SQL. */
+    private static String backfillPeriodBest(String table, String period, String key) {
+        return "INSERT INTO " + table + " (" + period + ", username, best_score, best_date, best_id, attempts) "
+                + "SELECT " + key + ", username, score, quiz_date, rowid, 1 FROM results "
+                + "ORDER BY 1, username, score DESC, quiz_date ASC, rowid ASC "
+                + "ON CONFLICT (" + period + ", username) DO UPDATE SET attempts = attempts + 1";
+    }
+
+    /**
+     * Creates or upgrades the schema to the latest version. Safe to run on every start. Also
+     * repairs a bulk import that was killed between {@link #prepareBulkLoad} and
+     * {@link #finishBulkLoad}: the ranking index is recreated and, if the summary trigger is
+     * missing, the summaries are rebuilt before the trigger is restored.
+     */
+    static void migrate(Connection conn) throws SQLException {
+        int version;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            version = rs.next() ? rs.getInt(1) : 0;
+        }
+        for (int v = version; v < MIGRATIONS.length; v++) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : MIGRATIONS[v]) {
+                    stmt.execute(sql);
+                }
+                stmt.execute("PRAGMA user_version = " + (v + 1));
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        if (!hasSummaryTrigger(conn)) {
+            rebuildBulkLoaded(conn);
+        } else {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(RANK_INDEX_SQL);
+            }
+        }
+    }
+
+    private static boolean hasSummaryTrigger(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT 1 FROM sqlite_master WHERE type = 'trigger' AND name = 'trg_results_summaries'")) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Before a bulk insert into results: drops the ranking index and the summary trigger, so
+     * rows go in without per-row index and trigger work. Always pair with {@link #finishBulkLoad}.
+     */
+    static void prepareBulkLoad(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TRIGGER IF EXISTS trg_results_summaries");
+            stmt.execute("DROP INDEX IF EXISTS idx_results_rank");
+        }
+    }
+
+    /**
+     * After a bulk insert: rebuilds the ranking index and the summary tables in one pass each,
+     * restores the trigger, and drops the in-memory ranked leaderboard so it is reloaded.
+     */
+    static void finishBulkLoad(Connection conn) throws SQLException {
+        rebuildBulkLoaded(conn);
+        resetRankedLeaderboard();
+    }
+
+    private static void rebuildBulkLoaded(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(RANK_INDEX_SQL);
+            stmt.execute("DELETE FROM user_best");
+            stmt.execute("DELETE FROM daily_best");
+            stmt.execute("DELETE FROM weekly_best");
+            for (String sql : SUMMARY_BACKFILL_SQL) {
+                stmt.execute(sql);
+            }
+            stmt.execute(SUMMARY_TRIGGER_SQL);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Forgets the in-memory ranked leaderboard after results were written behind its back;
+     * the next {@link #rankedLeaderboard()} call reloads it.
+     */
+    static void resetRankedLeaderboard() {
+        synchronized (RANKED_LOCK) {
+            ranked = null;
+            rankedGeneration++; // a warm-up in progress read the old rows; it starts over
+        }
     }
-    public static void saveResult(String username, int score) {
-        String sql = "INSERT INTO results (username, score, quiz_date) VALUES (?, ?, ?)";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setString(1, username);
-            pstmt.setInt(2, score);
-            pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
-            pstmt.executeUpdate();
+    /**
+     * Shared write-behind result writer, created on first use. A shutdown hook flushes it
+     * if the application exits without calling {@link #shutdown()}.
+     */
+    public static synchronized ResultWriter writer() {
+        if (writer == null) {
+            writer = new ResultWriter(DBUtil::saveResults, BATCH_SIZE, BATCH_DELAY_MS, QUEUE_CAPACITY);
+            Runtime.getRuntime().addShutdownHook(new Thread(DBUtil::shutdown, "quiz-db-shutdown"));
+        }
+        return writer;
+    }
+
+    /**
+     * In-memory ranked leaderboard, warmed from the results table on first use and then kept
+     * up to date by every save. Call once at startup to warm it off the UI thread.
+     *
+     * The board is loaded privately and published only when complete, so readers never rank
+     * against a partial board. Saves are not blocked meanwhile: results committed during the
+     * load are buffered and merged before publishing. Entries carry their row id, so a row seen
+     * by both the load and the buffer is only stored once.
+     */
+    public static RankedLeaderboard rankedLeaderboard() {
+        RankedLeaderboard rl = ranked;
+        if (rl != null) return rl;
+        synchronized (RANKED_WARMUP) {
+            while (true) {
+                long generation;
+                synchronized (RANKED_LOCK) {
+                    if (ranked != null) return ranked;
+                    generation = rankedGeneration;
+                    pendingRanked = new ArrayList<>();
+                }
+                rl = new RankedLeaderboard(RANKED_CAPACITY);
+                rl.addAll(getLeaderboard(RANKED_CAPACITY));
+                synchronized (RANKED_LOCK) {
+                    List<LeaderboardEntry> pending = pendingRanked;
+                    pendingRanked = null;
+                    if (generation == rankedGeneration) {
+                        rl.addAll(pending);
+                        ranked = rl;
+                        return rl;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Flushes queued results, then closes all pooled connections. Call on application exit.
+     */
+    public static void shutdown() {
+        // Close outside the lock: the writer thread still needs pool() while it flushes.
+        ResultWriter w;
+        synchronized (DBUtil.class) {
+            w = writer;
+            writer = null;
+        }
+        if (w != null) {
+            w.close();
+        }
+
+        ResultStore s;
+        synchronized (DBUtil.class) {
+            s = store;
+            store = null;
+        }
+        if (s != null) {
+            s.close();
+        }
+
+        ConnectionPool p;
+        synchronized (DBUtil.class) {
+            p = pool;
+            pool = null;
+        }
+        if (p != null) {
+            p.close();
+        }
+    }
 
+    public static void saveResult(String username, int score) {
+        try {
+            saveResults(List.of(new LeaderboardEntry(username, score, LocalDateTime.now())));
             System.out.println("✅ Saved result for " + username + " | Score: " + score);
         } catch (SQLException e) {
             System.err.println("❌ Error saving result:");
@@ -30,26 +472,351 @@ public class DBUtil {
         }
     }
 
+    /**
+     * Queues a result for the write-behind writer. The future completes with the stored entry
+     * (including its row id) when the result has been committed; use it to confirm the save.
+     */
+    public static CompletableFuture<LeaderboardEntry> saveResultAsync(String username, int score) {
+        return writer().submit(new LeaderboardEntry(username, score, LocalDateTime.now()));
+    }
+
+    /**
+     * Stores all results in one transaction and returns them with their assigned ids.
+     */
+    public static List<LeaderboardEntry> saveResults(List<LeaderboardEntry> results) throws SQLException {
+        long start = QuizMetrics.start();
+        QuizEvents.DbWrite event = new QuizEvents.DbWrite();
+        event.begin();
+        boolean committed = false;
+        List<LeaderboardEntry> stored;
+        try {
+            stored = store().saveResults(results);
+            committed = true;
+        } finally {
+            QuizEvents.commitDbWrite(event, results.size(), committed);
+        }
+        QuizMetrics.resultsSaved(results.size(), start);
+
+        RankedLeaderboard rl;
+        synchronized (RANKED_LOCK) {
+            if (pendingRanked != null) {
+                pendingRanked.addAll(stored);
+                return stored;
+            }
+            rl = ranked;
+        }
+        if (rl != null) {
+            rl.addAll(stored);
+        }
+        return stored;
+    }
+
+    /**
+     * Returns the best {@code limit} results, ranked by score (desc) then date (asc).
+     */
+    public static List<LeaderboardEntry> getLeaderboard(int limit) {
+        return getLeaderboardPage(limit, null);
+    }
+
+    /**
+     * Keyset pagination: returns up to {@code limit} results ranked after {@code after}
+     * (the last entry of the previous page), or the top results if {@code after} is null.
+     * With the SQLite and H2 stores the cost depends on the page size, not on the size of the
+     * results table; the mmap store scans its file.
+     */
+    public static List<LeaderboardEntry> getLeaderboardPage(int limit, LeaderboardEntry after) {
+        long start = QuizMetrics.start();
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        try {
+            entries = store().getLeaderboardPage(limit, after);
+        } catch (SQLException e) {
+            System.err.println("❌ Error loading leaderboard:");
+            e.printStackTrace();
+        }
+        QuizMetrics.stop(QuizMetrics.Timer.DB_QUERY, start);
+        return entries;
+    }
+
+    /**
+     * Returns every result. Prefer {@link #getLeaderboard(int)} or
+     * {@link #getLeaderboardPage(int, LeaderboardEntry)}, whose cost does not grow with the table.
+     */
     public static List<LeaderboardEntry> getLeaderboard() {
+        long start = QuizMetrics.start();
         List<LeaderboardEntry> entries = new ArrayList<>();
-        String sql = "SELECT username, score, quiz_date FROM results ORDER BY score DESC, quiz_date ASC";
+        try {
+            entries = store().getAll();
+        } catch (SQLException e) {
+            System.err.println("❌ Error loading leaderboard:");
+            e.printStackTrace();
+        }
+        QuizMetrics.stop(QuizMetrics.Timer.DB_QUERY, start);
+        return entries;
+    }
+
+    // --------------------
+    // SQLite result store
+    // --------------------
+
+    /**
+     * The default {@link ResultStore}: the results table in the shared SQLite pool.
+     */
+    private static final class SqliteStore implements ResultStore {
+
+        @Override
+        public List<LeaderboardEntry> saveResults(List<LeaderboardEntry> results) throws SQLException {
+            List<LeaderboardEntry> stored = new ArrayList<>(results.size());
+            try (ConnectionPool.PooledConnection conn = pool().borrow()) {
+                Connection c = conn.connection();
+                PreparedStatement pstmt = conn.prepare(INSERT_RESULT_SQL);
+                c.setAutoCommit(false);
+                try {
+                    for (LeaderboardEntry r : results) {
+                        pstmt.setString(1, r.getUsername());
+                        pstmt.setInt(2, r.getScore());
+                        pstmt.setTimestamp(3, Timestamp.valueOf(r.getQuizDate()));
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+
+                    // The transaction holds the write lock, so the batch got consecutive row ids.
+                    long lastId;
+                    try (ResultSet rs = conn.prepare("SELECT last_insert_rowid()").executeQuery()) {
+                        lastId = rs.next() ? rs.getLong(1) : 0;
+                    }
+                    c.commit();
+
+                    long id = lastId - results.size() + 1;
+                    for (LeaderboardEntry r : results) {
+                        stored.add(new LeaderboardEntry(id++, r.getUsername(), r.getScore(), r.getQuizDate()));
+                    }
+                } finally {
+                    // Rolls back anything uncommitted when the connection is returned.
+                    pstmt.clearBatch();
+                }
+            }
+            return stored;
+        }
+
+        @Override
+        public List<LeaderboardEntry> getLeaderboardPage(int limit, LeaderboardEntry after) throws SQLException {
+            List<LeaderboardEntry> entries = new ArrayList<>(Math.min(limit, 1024));
+            try (ConnectionPool.PooledConnection conn = pool().borrow()) {
+                PreparedStatement pstmt;
+                if (after == null) {
+                    pstmt = conn.prepare(TOP_SQL);
+                    pstmt.setInt(1, limit);
+                } else {
+                    Timestamp afterDate = Timestamp.valueOf(after.getQuizDate());
+                    pstmt = conn.prepare(PAGE_AFTER_SQL);
+                    pstmt.setInt(1, after.getScore());
+                    pstmt.setInt(2, after.getScore());
+                    pstmt.setTimestamp(3, afterDate);
+                    pstmt.setTimestamp(4, afterDate);
+                    pstmt.setLong(5, after.getId());
+                    pstmt.setInt(6, limit);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        entries.add(entry(rs));
+                    }
+                }
+            }
+            return entries;
+        }
+
+        @Override
+        public List<LeaderboardEntry> getAll() throws SQLException {
+            List<LeaderboardEntry> entries = new ArrayList<>();
+            try (ConnectionPool.PooledConnection conn = pool().borrow();
+                 ResultSet rs = conn.prepare(LEADERBOARD_SQL).executeQuery()) {
+                while (rs.next()) {
+                    entries.add(entry(rs));
+                }
+            }
+            return entries;
+        }
 
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        @Override
+        public List<LeaderboardEntry> getBestPerUser(int limit) throws SQLException {
+            return query(BEST_PER_USER_SQL, null, limit);
+        }
+
+        @Override
+        public List<LeaderboardEntry> getDailyBest(LocalDate day, int limit) throws SQLException {
+            return query(DAILY_TOP_SQL, day.toString(), limit);
+        }
+
+        @Override
+        public List<LeaderboardEntry> getWeeklyBest(LocalDate monday, int limit) throws SQLException {
+            return query(WEEKLY_TOP_SQL, monday.toString(), limit);
+        }
 
+        @Override
+        public PlayerSummary getPlayerSummary(String username) throws SQLException {
+            try (ConnectionPool.PooledConnection conn = pool().borrow()) {
+                PreparedStatement pstmt = conn.prepare(PLAYER_SUMMARY_SQL);
+                pstmt.setString(1, username);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) return null;
+                    return new PlayerSummary(rs.getString(2), entry(rs), rs.getInt(5),
+                            rs.getTimestamp(6).toLocalDateTime());
+                }
+            }
+        }
+
+        /** Runs a summary query, with the period key (if any) and the limit as parameters. */
+        private static List<LeaderboardEntry> query(String sql, String period, int limit) throws SQLException {
+            List<LeaderboardEntry> entries = new ArrayList<>(Math.min(limit, 1024));
+            try (ConnectionPool.PooledConnection conn = pool().borrow()) {
+                PreparedStatement pstmt = conn.prepare(sql);
+                int i = 1;
+                if (period != null) pstmt.setString(i++, period);
+                pstmt.setInt(i, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        entries.add(entry(rs));
+                    }
+                }
+            }
+            return entries;
+        }
+
+        @Override
+        public void close() {
+            // The pool is closed by shutdown().
+        }
+    }
+
+    // --------------------
+    // Question statistics (AnswerLog)
+    // --------------------
+
+    /**
+     * Stores the given question stats and the answer-log position they reflect, in one transaction.
+     */
+    public static void saveQuestionStats(List<QuestionStats> stats, long logId, long bytesApplied) throws SQLException {
+        try (ConnectionPool.PooledConnection conn = pool().borrow()) {
+            Connection c = conn.connection();
+            PreparedStatement pstmt = conn.prepare(UPSERT_QUESTION_STATS_SQL);
+            c.setAutoCommit(false);
+            try {
+                for (QuestionStats s : stats) {
+                    long[] options = s.getOptionCounts();
+                    pstmt.setLong(1, s.getBankId());
+                    pstmt.setInt(2, s.getQuestion());
+                    pstmt.setLong(3, s.getAttempts());
+                    pstmt.setLong(4, s.getCorrect());
+                    for (int i = 0; i < 4; i++) {
+                        pstmt.setLong(5 + i, options[i]);
+                    }
+                    pstmt.setLong(9, s.getTotalMillis());
+                    pstmt.setBytes(10, s.latencyBytes());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                PreparedStatement checkpoint = conn.prepare(UPSERT_CHECKPOINT_SQL);
+                checkpoint.setLong(1, logId);
+                checkpoint.setLong(2, bytesApplied);
+                checkpoint.executeUpdate();
+                c.commit();
+            } finally {
+                // Rolls back anything uncommitted when the connection is returned.
+                pstmt.clearBatch();
+            }
+        }
+    }
+
+    /**
+     * Reads every persisted question stats row. Runs once when the answer log opens.
+     */
+    public static List<QuestionStats> loadQuestionStats() throws SQLException {
+        List<QuestionStats> stats = new ArrayList<>();
+        try (ConnectionPool.PooledConnection conn = pool().borrow();
+             ResultSet rs = conn.prepare(LOAD_QUESTION_STATS_SQL).executeQuery()) {
             while (rs.next()) {
-                entries.add(new LeaderboardEntry(
-                        rs.getString("username"),
-                        rs.getInt("score"),
-                        rs.getTimestamp("quiz_date").toLocalDateTime()
-                ));
+                long[] options = { rs.getLong(5), rs.getLong(6), rs.getLong(7), rs.getLong(8) };
+                stats.add(QuestionStats.restore(rs.getLong(1), rs.getInt(2), rs.getLong(3), rs.getLong(4),
+                        options, rs.getLong(9), rs.getBytes(10)));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Bytes of the given answer log already folded into question_stats, or -1 if none.
+     */
+    public static long loadAnswerLogCheckpoint(long logId) throws SQLException {
+        try (ConnectionPool.PooledConnection conn = pool().borrow()) {
+            PreparedStatement pstmt = conn.prepare(LOAD_CHECKPOINT_SQL);
+            pstmt.setLong(1, logId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1;
             }
+        }
+    }
+
+    // --------------------
+    // Leaderboard summaries (best per player overall, per day and per week; see ResultStore)
+    // --------------------
+
+    /**
+     * Each player's best result, ranked by score (desc) then date (asc); one entry per player.
+     */
+    public static List<LeaderboardEntry> getBestPerUser(int limit) {
+        return querySummary(s -> s.getBestPerUser(limit));
+    }
+
+    /**
+     * Best result of each player on the given (local) day, ranked.
+     */
+    public static List<LeaderboardEntry> getDailyLeaderboard(LocalDate day, int limit) {
+        return querySummary(s -> s.getDailyBest(day, limit));
+    }
+
+    /**
+     * Best result of each player in the Monday-to-Sunday week containing {@code day}, ranked.
+     */
+    public static List<LeaderboardEntry> getWeeklyLeaderboard(LocalDate day, int limit) {
+        LocalDate monday = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return querySummary(s -> s.getWeeklyBest(monday, limit));
+    }
+
+    /**
+     * Best result and attempt count of one player, or null if they have never played.
+     */
+    public static PlayerSummary getPlayerSummary(String username) {
+        long start = QuizMetrics.start();
+        PlayerSummary summary = null;
+        try {
+            summary = store().getPlayerSummary(username);
         } catch (SQLException e) {
-            System.err.println("❌ Error loading leaderboard:");
+            System.err.println("❌ Error loading player summary:");
             e.printStackTrace();
         }
+        QuizMetrics.stop(QuizMetrics.Timer.DB_QUERY, start);
+        return summary;
+    }
 
+    private interface SummaryQuery {
+        List<LeaderboardEntry> run(ResultStore store) throws SQLException;
+    }
+
+    private static List<LeaderboardEntry> querySummary(SummaryQuery query) {
+        long start = QuizMetrics.start();
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        try {
+            entries = query.run(store());
+        } catch (SQLException e) {
+            System.err.println("❌ Error loading leaderboard:");
+            e.printStackTrace();
+        }
+        QuizMetrics.stop(QuizMetrics.Timer.DB_QUERY, start);
         return entries;
     }
+
+    /** Reads (id, username, score, date) from the first four columns. */
+    private static LeaderboardEntry entry(ResultSet rs) throws SQLException {
+        return new LeaderboardEntry(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getTimestamp(4).toLocalDateTime());
+    }
 }
@@ -0,0 +1,55 @@
+package quiz;
+
+/**
+ * Question bank that is filled by a background loader while it is already being read.
+ *
+ * A single loader thread appends questions and finally calls {@link #complete()};
+ * any thread may read the questions published so far. Questions go straight into the
+ * {@link CompactQuestionBank} layout: once the bank is complete, reads are served by the built
+ * compact bank and the builder, with its intern tables, is dropped.
+ */
+public class GrowingQuestionBank implements QuestionBank {
+
+    private CompactQuestionBank.Builder builder = new CompactQuestionBank.Builder();
+    private CompactQuestionBank compact;
+    private volatile boolean complete = false;
+
+    public synchronized void add(QuizQuestion question) {
+        if (complete) {
+            throw new IllegalStateException("Bank is already complete");
+        }
+        builder.add(question);
+    }
+
+    /**
+     * Marks the bank as fully loaded (or loading as abandoned); no more questions will arrive.
+     */
+    public synchronized void complete() {
+        if (complete) return;
+        compact = builder.build();
+        builder = null;
+        complete = true;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * The questions in compact form once the bank is complete (the instance to cache and share),
+     * or null while it is still loading.
+     */
+    public synchronized CompactQuestionBank getCompact() {
+        return compact;
+    }
+
+    @Override
+    public synchronized int size() {
+        return compact != null ? compact.size() : builder.size();
+    }
+
+    @Override
+    public synchronized QuizQuestion get(int index) {
+        return compact != null ? compact.get(index) : builder.get(index);
+    }
+}
@@ -0,0 +1,110 @@
+package quiz;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a gzip-compressed bank (.csv.gz) as a two-stage pipeline.
+ *
+ * A "quiz-gunzip" thread inflates the file into a fixed set of buffers and hands each full
+ * one to the calling thread, which parses it and hands it back. The two stages overlap, and
+ * the buffers bound the memory: inflating stalls when the parser falls
+ * {@value #BUFFERS} buffers behind. Multi-member files (cat a.gz b.gz) are read to the end.
+ */
+final class GzipBankReader {
+
+    static final String EXTENSION = ".gz";
+
+    private static final int BUFFER_SIZE = Integer.getInteger("quiz.parse.gzipBufferKb", 256) * 1024;
+    private static final int BUFFERS = 4;
+    private static final int INPUT_BUFFER_SIZE = 64 * 1024;
+
+    /** A filled buffer and how far into the compressed file inflating had read when it was filled. */
+    private static final class Chunk {
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long filePosition;
+    }
+
+    /** Receives the inflated bytes in file order. */
+    interface Sink {
+        void feed(ByteBuffer buf, long filePosition);
+    }
+
+    private static final Chunk END = new Chunk();
+
+    private GzipBankReader() {
+    }
+
+    static boolean isCompressed(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(EXTENSION);
+    }
+
+    /**
+     * Inflates the whole file into {@code sink} on the calling thread. Returns once the last
+     * byte has been fed; a corrupt or truncated file surfaces as an IOException after the
+     * bytes before the damage.
+     */
+    static void read(Path file, Sink sink) throws IOException {
+        BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(BUFFERS);
+        BlockingQueue<Chunk> full = new ArrayBlockingQueue<>(BUFFERS + 1);
+        for (int i = 0; i < BUFFERS; i++) free.add(new Chunk());
+        IOException[] failure = new IOException[1];
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        Thread inflater = new Thread(() -> inflate(channel, free, full, failure), "quiz-gunzip");
+        inflater.setDaemon(true);
+        inflater.start();
+        try {
+            while (true) {
+                Chunk chunk = full.take();
+                if (chunk == END) break;
+                sink.feed(chunk.buffer, chunk.filePosition);
+                free.add(chunk);
+            }
+            inflater.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + file, e);
+        } finally {
+            // Stops the inflater if the sink threw; a no-op once it has finished.
+            inflater.interrupt();
+            channel.close();
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    private static void inflate(FileChannel channel, BlockingQueue<Chunk> free, BlockingQueue<Chunk> full,
+                                IOException[] failure) {
+        try (InputStream in = new GZIPInputStream(Channels.newInputStream(channel), INPUT_BUFFER_SIZE)) {
+            while (true) {
+                Chunk chunk = free.take();
+                ByteBuffer buf = chunk.buffer;
+                buf.clear();
+                int n;
+                while (buf.hasRemaining() && (n = in.read(buf.array(), buf.position(), buf.remaining())) > 0) {
+                    buf.position(buf.position() + n);
+                }
+                buf.flip();
+                chunk.filePosition = channel.position();
+                if (!buf.hasRemaining()) break;
+                full.put(chunk);
+            }
+        } catch (IOException e) {
+            failure[0] = e;
+        } catch (InterruptedException e) {
+            return; // reader gave up; nobody is waiting for END
+        }
+        // Always room: at most BUFFERS chunks are ever queued.
+        full.add(END);
+    }
+}
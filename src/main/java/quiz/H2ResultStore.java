@@ -0,0 +1,376 @@
+package quiz;
+
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ResultStore} in an embedded H2 database (pure Java, no native library), selected with
+ * -Dquiz.store=h2. The schema mirrors the SQLite results table: one row per result and an index
+ * in leaderboard order, so the top and keyset-page queries read only the rows they return.
+ * The per-player summaries (user_best, daily_best, weekly_best) are kept current the same way
+ * as in SQLite: an insert trigger ({@link SummaryTrigger}) folds each new result in, and the
+ * tables are backfilled from the whole history when the trigger is first created.
+ *
+ * Usage: -Dquiz.store=h2 [-Dquiz.store.h2.url=jdbc:h2:./quiz-results]
+ */
+public final class H2ResultStore implements ResultStore {
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS results ("
+                    + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "username VARCHAR NOT NULL, "
+                    + "score INT NOT NULL, "
+                    + "quiz_date TIMESTAMP NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_results_rank ON results (score DESC, quiz_date ASC, id ASC)",
+            "CREATE TABLE IF NOT EXISTS user_best ("
+                    + "username VARCHAR PRIMARY KEY, "
+                    + "best_score INT NOT NULL, "
+                    + "best_date TIMESTAMP NOT NULL, "
+                    + "best_id BIGINT NOT NULL, "
+                    + "attempts INT NOT NULL, "
+                    + "last_played TIMESTAMP NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_user_best_rank ON user_best (best_score DESC, best_date ASC, best_id ASC)",
+            periodTable("daily_best", "play_day"),
+            "CREATE INDEX IF NOT EXISTS idx_daily_best_rank ON daily_best (play_day, best_score DESC, best_date ASC, best_id ASC)",
+            periodTable("weekly_best", "play_week"),
+            "CREATE INDEX IF NOT EXISTS idx_weekly_best_rank ON weekly_best (play_week, best_score DESC, best_date ASC, best_id ASC)"
+    };
+
+    // Period keys as local dates; weeks are keyed by their Monday. (DAY is reserved in H2, hence
+    // play_day and play_week for the key columns.)
+    private static final String DAY_OF_ROW = "CAST(quiz_date AS DATE)";
+    private static final String WEEK_OF_ROW =
+            "DATEADD(DAY, 1 - EXTRACT(ISO_DAY_OF_WEEK FROM quiz_date), CAST(quiz_date AS DATE))";
+
+    private static final String SUMMARY_TRIGGER_SQL =
+            "CREATE TRIGGER trg_results_summaries AFTER INSERT ON results FOR EACH ROW "
+                    + "CALL '" + SummaryTrigger.class.getName() + "'";
+
+    // One-time fill of the (empty) summary tables from the whole history: the best row of each
+    // key, with the key's attempt count.
+    private static final String[] SUMMARY_BACKFILL_SQL = {
+            "INSERT INTO user_best (username, best_score, best_date, best_id, attempts, last_played) "
+                    + "SELECT username, score, quiz_date, id, attempts, last_played FROM ("
+                    + "SELECT username, score, quiz_date, id, "
+                    + "COUNT(*) OVER (PARTITION BY username) AS attempts, "
+                    + "MAX(quiz_date) OVER (PARTITION BY username) AS last_played, "
+                    + "ROW_NUMBER() OVER (PARTITION BY username ORDER BY score DESC, quiz_date ASC, id ASC) AS rn "
+                    + "FROM results) WHERE rn = 1",
+            backfillPeriodBest("daily_best", "play_day", DAY_OF_ROW),
+            backfillPeriodBest("weekly_best", "play_week", WEEK_OF_ROW)
+    };
+
+    // A new result replaces a best one with a higher score, or the same score earlier.
+    private static final String BEATS_BEST = "(? > best_score OR (? = best_score AND ? < best_date))";
+
+    private static final String BUMP_USER_SQL =
+            "UPDATE user_best SET attempts = attempts + 1, last_played = GREATEST(last_played, ?) WHERE username = ?";
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO user_best (username, best_score, best_date, best_id, attempts, last_played) "
+                    + "VALUES (?, ?, ?, ?, 1, ?)";
+    private static final String BEST_USER_SQL =
+            "UPDATE user_best SET best_score = ?, best_date = ?, best_id = ? WHERE username = ? AND " + BEATS_BEST;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO results (username, score, quiz_date) VALUES (?, ?, ?)";
+    private static final String TOP_SQL =
+            "SELECT id, username, score, quiz_date FROM results "
+                    + "ORDER BY score DESC, quiz_date ASC, id ASC FETCH FIRST ? ROWS ONLY";
+    private static final String PAGE_AFTER_SQL =
+            "SELECT id, username, score, quiz_date FROM results "
+                    + "WHERE score <= ? AND (score < ? OR quiz_date > ? OR (quiz_date = ? AND id > ?)) "
+                    + "ORDER BY score DESC, quiz_date ASC, id ASC FETCH FIRST ? ROWS ONLY";
+    private static final String ALL_SQL =
+            "SELECT id, username, score, quiz_date FROM results ORDER BY score DESC, quiz_date ASC, id ASC";
+
+    private static final String BEST_PER_USER_SQL =
+            "SELECT best_id, username, best_score, best_date FROM user_best "
+                    + "ORDER BY best_score DESC, best_date ASC, best_id ASC FETCH FIRST ? ROWS ONLY";
+    private static final String PLAYER_SUMMARY_SQL =
+            "SELECT best_id, username, best_score, best_date, attempts, last_played FROM user_best WHERE username = ?";
+    private static final String DAILY_TOP_SQL =
+            "SELECT best_id, username, best_score, best_date FROM daily_best WHERE play_day = ? "
+                    + "ORDER BY best_score DESC, best_date ASC, best_id ASC FETCH FIRST ? ROWS ONLY";
+    private static final String WEEKLY_TOP_SQL =
+            "SELECT best_id, username, best_score, best_date FROM weekly_best WHERE play_week = ? "
+                    + "ORDER BY best_score DESC, best_date ASC, best_id ASC FETCH FIRST ? ROWS ONLY";
+
+    private final ConnectionPool pool;
+
+    public H2ResultStore(String url, int poolSize) throws SQLException {
+        pool = new ConnectionPool(() -> DriverManager.getConnection(url), poolSize);
+        try (ConnectionPool.PooledConnection conn = pool.borrow();
+             Statement stmt = conn.connection().createStatement()) {
+            for (String sql : SCHEMA) {
+                stmt.execute(sql);
+            }
+            if (!hasSummaryTrigger(conn.connection())) {
+                createSummaries(conn.connection());
+            }
+        } catch (SQLException e) {
+            pool.close();
+            throw e;
+        }
+    }
+
+    private static String periodTable(String table, String period) {
+        return "CREATE TABLE IF NOT EXISTS " + table + " ("
+                + period + " DATE NOT NULL, "
+                + "username VARCHAR NOT NULL, "
+                + "best_score INT NOT NULL, "
+                + "best_date TIMESTAMP NOT NULL, "
+                + "best_id BIGINT NOT NULL, "
+                + "attempts INT NOT NULL, "
+                + "PRIMARY KEY (" + period + ", username))";
+    }
+
+    /** Backfill of a per-period best table from results; see SUMMARY_BACKFILL_SQL. */
+    private static String backfillPeriodBest(String table, String period, String key) {
+        return "INSERT INTO " + table + " (" + period + ", username, best_score, best_date, best_id, attempts) "
+                + "SELECT period, username, score, quiz_date, id, attempts FROM ("
+                + "SELECT " + key + " AS period, username, score, quiz_date, id, "
+                + "COUNT(*) OVER (PARTITION BY " + key + ", username) AS attempts, "
+                + "ROW_NUMBER() OVER (PARTITION BY " + key + ", username "
+                + "ORDER BY score DESC, quiz_date ASC, id ASC) AS rn "
+                + "FROM results) WHERE rn = 1";
+    }
+
+    private static boolean hasSummaryTrigger(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT 1 FROM INFORMATION_SCHEMA.TRIGGERS WHERE TRIGGER_NAME = 'TRG_RESULTS_SUMMARIES'")) {
+            return rs.next();
+        }
+    }
+
+    /** Fills the summary tables from the results so far and installs the trigger, in one transaction. */
+    private static void createSummaries(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM user_best");
+            stmt.execute("DELETE FROM daily_best");
+            stmt.execute("DELETE FROM weekly_best");
+            for (String sql : SUMMARY_BACKFILL_SQL) {
+                stmt.execute(sql);
+            }
+            stmt.execute(SUMMARY_TRIGGER_SQL);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Stores the results in one transaction. Saves are serialized, as SQLite's are, so the
+     * trigger never sees two transactions inserting the same new summary row.
+     */
+    @Override
+    public synchronized List<LeaderboardEntry> saveResults(List<LeaderboardEntry> results) throws SQLException {
+        List<LeaderboardEntry> stored = new ArrayList<>(results.size());
+        try (ConnectionPool.PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.connection().prepareStatement(INSERT_SQL, new String[] { "ID" })) {
+            Connection c = conn.connection();
+            c.setAutoCommit(false);
+            for (LeaderboardEntry r : results) {
+                pstmt.setString(1, r.getUsername());
+                pstmt.setInt(2, r.getScore());
+                pstmt.setObject(3, r.getQuizDate());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                for (LeaderboardEntry r : results) {
+                    if (!keys.next()) throw new SQLException("Missing generated id for " + r.getUsername());
+                    stored.add(new LeaderboardEntry(keys.getLong(1), r.getUsername(), r.getScore(), r.getQuizDate()));
+                }
+            }
+            c.commit();
+        }
+        return stored;
+    }
+
+    @Override
+    public List<LeaderboardEntry> getLeaderboardPage(int limit, LeaderboardEntry after) throws SQLException {
+        List<LeaderboardEntry> entries = new ArrayList<>(Math.min(limit, 1024));
+        try (ConnectionPool.PooledConnection conn = pool.borrow()) {
+            PreparedStatement pstmt;
+            if (after == null) {
+                pstmt = conn.prepare(TOP_SQL);
+                pstmt.setInt(1, limit);
+            } else {
+                pstmt = conn.prepare(PAGE_AFTER_SQL);
+                pstmt.setInt(1, after.getScore());
+                pstmt.setInt(2, after.getScore());
+                pstmt.setObject(3, after.getQuizDate());
+                pstmt.setObject(4, after.getQuizDate());
+                pstmt.setLong(5, after.getId());
+                pstmt.setInt(6, limit);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(entry(rs));
+                }
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public List<LeaderboardEntry> getAll() throws SQLException {
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        try (ConnectionPool.PooledConnection conn = pool.borrow();
+             ResultSet rs = conn.prepare(ALL_SQL).executeQuery()) {
+            while (rs.next()) {
+                entries.add(entry(rs));
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public List<LeaderboardEntry> getBestPerUser(int limit) throws SQLException {
+        return querySummary(BEST_PER_USER_SQL, null, limit);
+    }
+
+    @Override
+    public List<LeaderboardEntry> getDailyBest(LocalDate day, int limit) throws SQLException {
+        return querySummary(DAILY_TOP_SQL, day, limit);
+    }
+
+    @Override
+    public List<LeaderboardEntry> getWeeklyBest(LocalDate monday, int limit) throws SQLException {
+        return querySummary(WEEKLY_TOP_SQL, monday, limit);
+    }
+
+    @Override
+    public PlayerSummary getPlayerSummary(String username) throws SQLException {
+        try (ConnectionPool.PooledConnection conn = pool.borrow()) {
+            PreparedStatement pstmt = conn.prepare(PLAYER_SUMMARY_SQL);
+            pstmt.setString(1, username);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) return null;
+                return new PlayerSummary(rs.getString(2), entry(rs), rs.getInt(5),
+                        rs.getObject(6, LocalDateTime.class));
+            }
+        }
+    }
+
+    private List<LeaderboardEntry> querySummary(String sql, LocalDate period, int limit) throws SQLException {
+        List<LeaderboardEntry> entries = new ArrayList<>(Math.min(limit, 1024));
+        try (ConnectionPool.PooledConnection conn = pool.borrow()) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            int i = 1;
+            if (period != null) pstmt.setObject(i++, period);
+            pstmt.setInt(i, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(entry(rs));
+                }
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    private static LeaderboardEntry entry(ResultSet rs) throws SQLException {
+        return new LeaderboardEntry(rs.getLong(1), rs.getString(2), rs.getInt(3),
+                rs.getObject(4, LocalDateTime.class));
+    }
+
+    // --------------------
+    // Summary trigger
+    // --------------------
+
+    /**
+     * Folds each inserted result into user_best, daily_best and weekly_best, inside the inserting
+     * transaction. Instantiated by H2 (see SUMMARY_TRIGGER_SQL), so it must stay public.
+     */
+    public static final class SummaryTrigger implements org.h2.api.Trigger {
+
+        @Override
+        public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+            long id = ((Number) newRow[0]).longValue();
+            String username = (String) newRow[1];
+            int score = ((Number) newRow[2]).intValue();
+            LocalDateTime date = (LocalDateTime) newRow[3];
+
+            try (PreparedStatement bump = conn.prepareStatement(BUMP_USER_SQL)) {
+                bump.setObject(1, date);
+                bump.setString(2, username);
+                if (bump.executeUpdate() == 0) {
+                    try (PreparedStatement insert = conn.prepareStatement(INSERT_USER_SQL)) {
+                        insert.setString(1, username);
+                        insert.setInt(2, score);
+                        insert.setObject(3, date);
+                        insert.setLong(4, id);
+                        insert.setObject(5, date);
+                        insert.executeUpdate();
+                    }
+                } else {
+                    try (PreparedStatement best = conn.prepareStatement(BEST_USER_SQL)) {
+                        best.setInt(1, score);
+                        best.setObject(2, date);
+                        best.setLong(3, id);
+                        best.setString(4, username);
+                        setBeats(best, 5, score, date);
+                        best.executeUpdate();
+                    }
+                }
+            }
+            LocalDate day = date.toLocalDate();
+            foldPeriod(conn, "daily_best", "play_day", day, id, username, score, date);
+            foldPeriod(conn, "weekly_best", "play_week", day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                    id, username, score, date);
+        }
+
+        private static void foldPeriod(Connection conn, String table, String period, LocalDate key,
+                                       long id, String username, int score, LocalDateTime date) throws SQLException {
+            try (PreparedStatement bump = conn.prepareStatement("UPDATE " + table
+                    + " SET attempts = attempts + 1 WHERE " + period + " = ? AND username = ?")) {
+                bump.setObject(1, key);
+                bump.setString(2, username);
+                if (bump.executeUpdate() == 0) {
+                    try (PreparedStatement insert = conn.prepareStatement("INSERT INTO " + table + " ("
+                            + period + ", username, best_score, best_date, best_id, attempts) VALUES (?, ?, ?, ?, ?, 1)")) {
+                        insert.setObject(1, key);
+                        insert.setString(2, username);
+                        insert.setInt(3, score);
+                        insert.setObject(4, date);
+                        insert.setLong(5, id);
+                        insert.executeUpdate();
+                    }
+                    return;
+                }
+            }
+            try (PreparedStatement best = conn.prepareStatement("UPDATE " + table
+                    + " SET best_score = ?, best_date = ?, best_id = ? WHERE " + period + " = ? AND username = ? AND "
+                    + BEATS_BEST)) {
+                best.setInt(1, score);
+                best.setObject(2, date);
+                best.setLong(3, id);
+                best.setObject(4, key);
+                best.setString(5, username);
+                setBeats(best, 6, score, date);
+                best.executeUpdate();
+            }
+        }
+
+        private static void setBeats(PreparedStatement pstmt, int index, int score, LocalDateTime date) throws SQLException {
+            pstmt.setInt(index, score);
+            pstmt.setInt(index + 1, score);
+            pstmt.setObject(index + 2, date);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package quiz;
 
-import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -23,17 +22,43 @@ public class LeaderboardController {
     private TableColumn<LeaderboardEntry, String> dateCol;
     @FXML
     private Button closeBtn;
+    @FXML
+    private Button moreBtn;
 
-    public void loadLeaderboard() {
+    private static final int PAGE_SIZE = 50;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @FXML
+    private void initialize() {
         usernameCol.setCellValueFactory(new PropertyValueFactory<>("username"));
         scoreCol.setCellValueFactory(new PropertyValueFactory<>("score"));
         dateCol.setCellValueFactory(cellData ->
                 new javafx.beans.property.SimpleStringProperty(
-                        cellData.getValue().getQuizDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))
+                        cellData.getValue().getQuizDate().format(DATE_FORMAT)
                 ));
+    }
 
-        List<LeaderboardEntry> entries = DBUtil.getLeaderboard();
-        leaderboardTable.setItems(FXCollections.observableArrayList(entries));
+    /**
+     * (Re)loads the first page. The view is built once and refreshed after every quiz;
+     * the first page comes from the in-memory ranked leaderboard, so no query is needed.
+     */
+    public void loadLeaderboard() {
+        List<LeaderboardEntry> entries = DBUtil.rankedLeaderboard().top(PAGE_SIZE);
+        leaderboardTable.getItems().setAll(entries);
+        leaderboardTable.scrollTo(0);
+        moreBtn.setDisable(entries.size() < PAGE_SIZE);
+    }
+
+    /**
+     * Appends the next page, continuing after the last row shown.
+     */
+    @FXML
+    private void loadMore() {
+        List<LeaderboardEntry> shown = leaderboardTable.getItems();
+        LeaderboardEntry last = shown.isEmpty() ? null : shown.get(shown.size() - 1);
+        List<LeaderboardEntry> page = DBUtil.getLeaderboardPage(PAGE_SIZE, last);
+        shown.addAll(page);
+        moreBtn.setDisable(page.size() < PAGE_SIZE);
     }
 
     @FXML
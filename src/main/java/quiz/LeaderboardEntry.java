@@ -1,16 +1,33 @@
 package quiz;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 public class LeaderboardEntry {
+    private final long id;
     private final String username;
     private final int score;
     private final LocalDateTime quizDate;
 
     public LeaderboardEntry(String username, int score, LocalDateTime quizDate) {
+        this(0, username, score, quizDate);
+    }
+
+    /**
+     * @param id the row id in the results table (0 if not stored yet); breaks ties between
+     *           entries with the same score and date when paging.
+     * @param quizDate truncated to milliseconds, the precision every result store keeps, so an
+     *                 entry compares the same before and after it is read back.
+     */
+    public LeaderboardEntry(long id, String username, int score, LocalDateTime quizDate) {
+        this.id = id;
         this.username = username;
         this.score = score;
-        this.quizDate = quizDate;
+        this.quizDate = quizDate.truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    public long getId() {
+        return id;
     }
 
     public String getUsername() {
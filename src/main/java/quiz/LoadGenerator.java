@@ -0,0 +1,223 @@
+package quiz;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Synthetic player load generator.
+ *
+ * Spins up one virtual thread per simulated player. Each player loads a generated bank,
+ * plays it through a {@link QuizSession} (so answers are scored by {@link QuizQuestion#isCorrect(int)}),
+ * and saves the result through {@link DBUtil}. Latencies are recorded per operation and
+ * reported as p50/p95/p99/max, then exported as CSV and JSON for regression tracking.
+ *
+ * Usage: java quiz.LoadGenerator [key=value ...]
+ * <pre>
+ * players=1000     simulated players
+ * questions=20     questions in the generated bank (each player answers all of them)
+ * thinkMs=0        mean think time per question (uniformly 0..2x)
+ * accuracy=0.7     probability that a player picks the correct option
+ * syncSave=false   use DBUtil.saveResult instead of the batched saveResultAsync
+ * out=loadgen      output prefix; writes out.csv and out.json
+ * </pre>
+ * Point -Dquiz.db.url and -Dquiz.analytics.log at scratch files.
+ */
+public class LoadGenerator {
+
+    /** Operations measured per player. */
+    private static final String[] OPERATIONS = { "load", "start", "answer", "next", "save", "player" };
+    private static final int KEPT_ERRORS = 3;
+
+    private final int players;
+    private final int questions;
+    private final long thinkMs;
+    private final double accuracy;
+    private final boolean syncSave;
+
+    private final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+    private final AtomicLong errors = new AtomicLong();
+    private final Queue<Exception> firstErrors = new ConcurrentLinkedQueue<>(); // up to KEPT_ERRORS
+    private long elapsedNanos;
+
+    public LoadGenerator(int players, int questions, long thinkMs, double accuracy, boolean syncSave) {
+        this.players = players;
+        this.questions = questions;
+        this.thinkMs = thinkMs;
+        this.accuracy = accuracy;
+        this.syncSave = syncSave;
+        for (String op : OPERATIONS) {
+            histograms.put(op, new LatencyHistogram());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.err.println("Ignoring argument without '=': " + arg);
+                continue;
+            }
+            opts.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        LoadGenerator gen = new LoadGenerator(
+                Integer.parseInt(opts.getOrDefault("players", "1000")),
+                Integer.parseInt(opts.getOrDefault("questions", "20")),
+                Long.parseLong(opts.getOrDefault("thinkMs", "0")),
+                Double.parseDouble(opts.getOrDefault("accuracy", "0.7")),
+                Boolean.parseBoolean(opts.getOrDefault("syncSave", "false")));
+
+        Path bank = Files.createTempFile("loadgen-bank", ".csv");
+        try {
+            BankGenerator.generateCsv(bank, gen.questions);
+            gen.run(bank);
+        } finally {
+            Files.deleteIfExists(bank);
+            AnswerLog.shutdown();
+            DBUtil.shutdown();
+        }
+
+        gen.printReport();
+        String out = opts.getOrDefault("out", "loadgen");
+        gen.exportCsv(Paths.get(out + ".csv"));
+        gen.exportJson(Paths.get(out + ".json"));
+        System.out.println("Results written to " + out + ".csv and " + out + ".json");
+    }
+
+    public void run(Path bankFile) throws InterruptedException {
+        AnswerLog.shared(); // open before timing, so replaying the log is not measured
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int p = 0; p < players; p++) {
+                String username = "player" + p;
+                executor.submit(() -> {
+                    try {
+                        play(bankFile, username);
+                    } catch (Exception e) {
+                        if (errors.incrementAndGet() <= KEPT_ERRORS) firstErrors.add(e);
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.DAYS);
+        }
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    private void play(Path bankFile, String username) throws Exception {
+        long playerStart = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long t = System.nanoTime();
+        QuestionBank bank = QuestionBank.load(bankFile);
+        t = lap("load", t);
+
+        QuizSession session = new QuizSession(bank, AnswerLog.bankId(bankFile));
+        session.start(username);
+        t = lap("start", t);
+
+        boolean more = bank.size() > 0;
+        while (more) {
+            if (thinkMs > 0) {
+                Thread.sleep(random.nextLong(2 * thinkMs + 1));
+                t = System.nanoTime();
+            }
+            int correct = session.current().getCorrectOptionIndex();
+            int choice = correct >= 0 && random.nextDouble() < accuracy
+                    ? correct
+                    : (Math.max(correct, 0) + 1 + random.nextInt(3)) % 4;
+            session.answer(choice);
+            t = lap("answer", t);
+
+            more = session.next();
+            t = lap("next", t);
+        }
+        session.end();
+
+        if (syncSave) {
+            DBUtil.saveResult(username, session.getScore());
+        } else {
+            DBUtil.saveResultAsync(username, session.getScore()).get();
+        }
+        lap("save", t);
+        lap("player", playerStart);
+    }
+
+    private long lap(String op, long since) {
+        long now = System.nanoTime();
+        histograms.get(op).record(now - since);
+        return now;
+    }
+
+    // --------------------
+    // Reporting
+    // --------------------
+
+    public void printReport() {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("Players: %d, questions: %d, think: %d ms, errors: %d, elapsed: %.2f s%n",
+                players, questions, thinkMs, errors.get(), seconds);
+        if (!firstErrors.isEmpty()) {
+            System.err.println("❌ First " + firstErrors.size() + " of " + errors.get() + " player error(s):");
+            for (Exception e : firstErrors) e.printStackTrace();
+        }
+        System.out.printf("%-8s %10s %10s %10s %10s %10s %12s%n", "op", "count", "p50 ms", "p95 ms", "p99 ms", "max ms", "ops/s");
+        for (Map.Entry<String, LatencyHistogram> e : histograms.entrySet()) {
+            LatencyHistogram h = e.getValue();
+            System.out.printf("%-8s %10d %10.3f %10.3f %10.3f %10.3f %12.0f%n", e.getKey(), h.getCount(),
+                    ms(h.getPercentile(50)), ms(h.getPercentile(95)), ms(h.getPercentile(99)), ms(h.getMax()),
+                    h.getCount() / seconds);
+        }
+    }
+
+    public void exportCsv(Path file) throws IOException {
+        double seconds = elapsedNanos / 1e9;
+        try (PrintWriter w = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            w.println("operation,count,p50_ms,p95_ms,p99_ms,max_ms,mean_ms,ops_per_sec");
+            for (Map.Entry<String, LatencyHistogram> e : histograms.entrySet()) {
+                LatencyHistogram h = e.getValue();
+                w.printf("%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.1f%n", e.getKey(), h.getCount(),
+                        ms(h.getPercentile(50)), ms(h.getPercentile(95)), ms(h.getPercentile(99)),
+                        ms(h.getMax()), h.getMean() / 1e6, h.getCount() / seconds);
+            }
+        }
+    }
+
+    public void exportJson(Path file) throws IOException {
+        double seconds = elapsedNanos / 1e9;
+        try (PrintWriter w = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            w.printf("{\"players\":%d,\"questions\":%d,\"thinkMs\":%d,\"accuracy\":%s,\"syncSave\":%s,"
+                            + "\"errors\":%d,\"elapsedSec\":%.3f,\"operations\":{",
+                    players, questions, thinkMs, accuracy, syncSave, errors.get(), seconds);
+            boolean first = true;
+            for (Map.Entry<String, LatencyHistogram> e : histograms.entrySet()) {
+                LatencyHistogram h = e.getValue();
+                if (!first) w.print(',');
+                first = false;
+                w.printf("\"%s\":{\"count\":%d,\"p50Ms\":%.3f,\"p95Ms\":%.3f,\"p99Ms\":%.3f,\"maxMs\":%.3f,"
+                                + "\"meanMs\":%.3f,\"opsPerSec\":%.1f}",
+                        e.getKey(), h.getCount(), ms(h.getPercentile(50)), ms(h.getPercentile(95)),
+                        ms(h.getPercentile(99)), ms(h.getMax()), h.getMean() / 1e6, h.getCount() / seconds);
+            }
+            w.println("}}");
+        }
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+}
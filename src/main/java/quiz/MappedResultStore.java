@@ -0,0 +1,319 @@
+package quiz;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Append-only {@link ResultStore} in a memory-mapped file, selected with -Dquiz.store=mmap.
+ *
+ * A save copies the records into the mapping and then moves the committed-length field in the
+ * header, so a batch becomes visible (and survives a crash) all at once or not at all; bytes
+ * past the committed length are overwritten by the next save. There are no indexes and no
+ * transaction log, which makes saves very cheap, but every leaderboard read scans the file
+ * (about 20 bytes per result), and so does every summary: the best per player overall, per day
+ * and per week are derived from the scan rather than stored. Pair it with the in-memory {@link RankedLeaderboard}, which is
+ * warmed with one scan and then updated by saves.
+ *
+ * Layout: a 16-byte header ("QZS1", version, committed length) followed by records of
+ * (short username length, UTF-8 username, int score, long epoch millis). A result's id is its
+ * position in the file (1-based). The file is mapped in {@value #REGION_MB} MB regions and grows
+ * a region at a time; a record never straddles two regions.
+ *
+ * Saves are durable against a process crash as soon as they return. With
+ * -Dquiz.store.mmap.force=true they are also flushed to the device, like a synchronous commit.
+ * The file is locked, so only one process can open it.
+ */
+public final class MappedResultStore implements ResultStore {
+
+    private static final int MAGIC = 0x515A5331; // "QZS1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int END_OFFSET = 8;
+
+    private static final int REGION_MB = 64;
+    private static final long REGION_SIZE = (long) REGION_MB << 20;
+
+    /** Length marker for "rest of this region is unused". */
+    private static final short SKIP = -1;
+
+    private static final boolean FORCE = Boolean.getBoolean("quiz.store.mmap.force");
+
+    private final Path file;
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    // Writers append past end under the monitor; readers scan [HEADER_SIZE, end) without locking.
+    // regions is replaced, never modified, and always covers end.
+    private volatile MappedByteBuffer[] regions;
+    private volatile long end;
+    private long count;
+    private boolean closed;
+
+    private MappedResultStore(Path file, FileChannel channel, FileLock lock) {
+        this.file = file;
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * Opens (or creates) the store. Anything past the committed length, e.g. from a save that
+     * was interrupted by a crash, is discarded.
+     */
+    public static MappedResultStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                throw new IOException(file + " is in use by another process");
+            }
+            MappedResultStore store = new MappedResultStore(file, channel, lock);
+            store.load();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void load() throws IOException {
+        boolean fresh = channel.size() == 0;
+        regions = new MappedByteBuffer[] { map(0) };
+        MappedByteBuffer header = regions[0];
+        if (fresh) {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putLong(END_OFFSET, HEADER_SIZE);
+        } else if (header.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a result store");
+        } else if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported result store version " + header.getInt(4));
+        }
+        long committed = header.getLong(END_OFFSET);
+        if (committed < HEADER_SIZE || committed > channel.size()) {
+            throw new IOException(file + " is corrupt: committed length " + committed);
+        }
+        MappedByteBuffer[] all = new MappedByteBuffer[(int) Math.max(1, (committed + REGION_SIZE - 1) / REGION_SIZE)];
+        all[0] = header;
+        for (int i = 1; i < all.length; i++) {
+            all[i] = map(i);
+        }
+        regions = all;
+        end = committed;
+        long[] n = new long[1];
+        scan(committed, all, (id, buf, off, len, score, millis) -> n[0] = id);
+        count = n[0];
+    }
+
+    private MappedByteBuffer map(int region) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, region * REGION_SIZE, REGION_SIZE);
+    }
+
+    @Override
+    public synchronized List<LeaderboardEntry> saveResults(List<LeaderboardEntry> results) throws SQLException {
+        if (closed) throw new SQLException("Result store is closed");
+        List<LeaderboardEntry> stored = new ArrayList<>(results.size());
+        MappedByteBuffer[] rs = regions;
+        long pos = end;
+        long id = count;
+        try {
+            for (LeaderboardEntry r : results) {
+                byte[] name = r.getUsername().getBytes(StandardCharsets.UTF_8);
+                if (name.length > Short.MAX_VALUE) {
+                    throw new SQLException("Username too long: " + name.length + " bytes");
+                }
+                int size = Short.BYTES + name.length + Integer.BYTES + Long.BYTES;
+                int off = (int) (pos % REGION_SIZE);
+                if (off + size > REGION_SIZE) {
+                    if (off + Short.BYTES <= REGION_SIZE) rs[(int) (pos / REGION_SIZE)].putShort(off, SKIP);
+                    pos += REGION_SIZE - off;
+                    off = 0;
+                }
+                int region = (int) (pos / REGION_SIZE);
+                if (region == rs.length) {
+                    rs = Arrays.copyOf(rs, region + 1);
+                    rs[region] = map(region);
+                }
+                MappedByteBuffer buf = rs[region];
+                buf.putShort(off, (short) name.length);
+                buf.put(off + Short.BYTES, name);
+                buf.putInt(off + Short.BYTES + name.length, r.getScore());
+                buf.putLong(off + Short.BYTES + name.length + Integer.BYTES, Timestamp.valueOf(r.getQuizDate()).getTime());
+                pos += size;
+                stored.add(new LeaderboardEntry(++id, r.getUsername(), r.getScore(), r.getQuizDate()));
+            }
+            if (FORCE) {
+                for (int i = (int) (end / REGION_SIZE); i < rs.length; i++) rs[i].force();
+            }
+            regions = rs;
+            rs[0].putLong(END_OFFSET, pos);
+            if (FORCE) rs[0].force(0, HEADER_SIZE);
+        } catch (IOException e) {
+            throw new SQLException("Error appending to " + file, e);
+        }
+        end = pos;
+        count = id;
+        return stored;
+    }
+
+    @Override
+    public List<LeaderboardEntry> getLeaderboardPage(int limit, LeaderboardEntry after) {
+        if (limit <= 0) return new ArrayList<>();
+        // Worst kept entry on top, so each candidate is compared against the current cut-off.
+        PriorityQueue<LeaderboardEntry> best = new PriorityQueue<>(Math.min(limit, 1024) + 1,
+                RankedLeaderboard.ORDER.reversed());
+        long committed = end;
+        scan(committed, regions, (id, buf, off, len, score, millis) -> {
+            LeaderboardEntry worst = best.size() == limit ? best.peek() : null;
+            if (worst != null && score < worst.getScore()) return;
+            if (after != null && score > after.getScore()) return;
+            LeaderboardEntry e = entry(id, buf, off, len, score, millis);
+            if (after != null && RankedLeaderboard.ORDER.compare(e, after) <= 0) return;
+            if (worst != null && RankedLeaderboard.ORDER.compare(e, worst) >= 0) return;
+            best.add(e);
+            if (best.size() > limit) best.poll();
+        });
+        List<LeaderboardEntry> entries = new ArrayList<>(best);
+        entries.sort(RankedLeaderboard.ORDER);
+        return entries;
+    }
+
+    @Override
+    public List<LeaderboardEntry> getAll() {
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        scan(end, regions, (id, buf, off, len, score, millis) -> entries.add(entry(id, buf, off, len, score, millis)));
+        entries.sort(RankedLeaderboard.ORDER);
+        return entries;
+    }
+
+    @Override
+    public List<LeaderboardEntry> getBestPerUser(int limit) {
+        return bestPerUser(Long.MIN_VALUE, Long.MAX_VALUE, limit);
+    }
+
+    @Override
+    public List<LeaderboardEntry> getDailyBest(LocalDate day, int limit) {
+        return bestPerUser(startMillis(day), startMillis(day.plusDays(1)), limit);
+    }
+
+    @Override
+    public List<LeaderboardEntry> getWeeklyBest(LocalDate monday, int limit) {
+        return bestPerUser(startMillis(monday), startMillis(monday.plusWeeks(1)), limit);
+    }
+
+    @Override
+    public PlayerSummary getPlayerSummary(String username) {
+        byte[] target = username.getBytes(StandardCharsets.UTF_8);
+        LeaderboardEntry[] best = new LeaderboardEntry[1];
+        long[] stats = new long[3]; // attempts, last played, best date (epoch millis)
+        scan(end, regions, (id, buf, off, len, score, millis) -> {
+            if (len != target.length || !matches(buf, off, target)) return;
+            stats[0]++;
+            stats[1] = stats[0] == 1 ? millis : Math.max(stats[1], millis);
+            LeaderboardEntry b = best[0];
+            // Ids grow along the scan, so an equal score and date never replaces the best.
+            if (b == null || score > b.getScore() || (score == b.getScore() && millis < stats[2])) {
+                best[0] = new LeaderboardEntry(id, username, score, new Timestamp(millis).toLocalDateTime());
+                stats[2] = millis;
+            }
+        });
+        if (best[0] == null) return null;
+        return new PlayerSummary(username, best[0], (int) stats[0], new Timestamp(stats[1]).toLocalDateTime());
+    }
+
+    /** Best result of each player with a date in [from, to) (epoch millis), ranked. */
+    private List<LeaderboardEntry> bestPerUser(long from, long to, int limit) {
+        Map<String, LeaderboardEntry> best = new HashMap<>();
+        scan(end, regions, (id, buf, off, len, score, millis) -> {
+            if (millis < from || millis >= to) return;
+            LeaderboardEntry e = entry(id, buf, off, len, score, millis);
+            best.merge(e.getUsername(), e, (a, b) -> RankedLeaderboard.ORDER.compare(a, b) <= 0 ? a : b);
+        });
+        List<LeaderboardEntry> entries = new ArrayList<>(best.values());
+        entries.sort(RankedLeaderboard.ORDER);
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, Math.max(limit, 0))) : entries;
+    }
+
+    private static long startMillis(LocalDate day) {
+        return Timestamp.valueOf(day.atStartOfDay()).getTime();
+    }
+
+    private static boolean matches(ByteBuffer buf, int off, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (buf.get(off + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    /** Number of stored results. */
+    public synchronized long size() {
+        return count;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            for (MappedByteBuffer region : regions) region.force();
+            lock.release();
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("❌ Error closing result store " + file + ":");
+            e.printStackTrace();
+        }
+    }
+
+    // --------------------
+    // Scanning
+    // --------------------
+
+    private interface RecordVisitor {
+        /** {@code off} and {@code len} locate the username bytes in {@code buf}. */
+        void visit(long id, ByteBuffer buf, int off, int len, int score, long millis);
+    }
+
+    private static void scan(long end, MappedByteBuffer[] regions, RecordVisitor visitor) {
+        long pos = HEADER_SIZE;
+        long id = 0;
+        while (pos < end) {
+            int region = (int) (pos / REGION_SIZE);
+            int off = (int) (pos % REGION_SIZE);
+            if (off + Short.BYTES > REGION_SIZE) {
+                pos += REGION_SIZE - off;
+                continue;
+            }
+            ByteBuffer buf = regions[region];
+            int len = buf.getShort(off);
+            if (len == SKIP) {
+                pos += REGION_SIZE - off;
+                continue;
+            }
+            int fields = off + Short.BYTES + len;
+            visitor.visit(++id, buf, off + Short.BYTES, len, buf.getInt(fields), buf.getLong(fields + Integer.BYTES));
+            pos += Short.BYTES + len + Integer.BYTES + Long.BYTES;
+        }
+    }
+
+    private static LeaderboardEntry entry(long id, ByteBuffer buf, int off, int len, int score, long millis) {
+        byte[] name = new byte[len];
+        buf.get(off, name);
+        return new LeaderboardEntry(id, new String(name, StandardCharsets.UTF_8), score,
+                new Timestamp(millis).toLocalDateTime());
+    }
+}
@@ -0,0 +1,234 @@
+package quiz;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses a CSV bank on several cores and returns the questions in file order.
+ *
+ * <ol>
+ *   <li>The file is cut into byte ranges. Each range is scanned in parallel for its quote
+ *       count and for its first line break at even and at odd quote parity.</li>
+ *   <li>A prefix sum over the quote counts gives the parity at each range start, which tells
+ *       which of those two line breaks lies outside a quoted field. That line break is where
+ *       the range's first record starts. Quoted newlines never split a record.</li>
+ *   <li>The aligned ranges are parsed in parallel by independent {@link CsvQuestionParser}s
+ *       and their results are concatenated in range order.</li>
+ * </ol>
+ * Parity only works for well-formed quoting. If any range sees a literal quote inside an
+ * unquoted field, or does not end on a record boundary, the file is parsed again sequentially,
+ * so the result always matches {@link CsvQuestionParser#readAll(Path)}. Compressed (.gz) files
+ * cannot be split and are always parsed sequentially.
+ *
+ * Usage (scaling report): java quiz.ParallelCsvLoader bank.csv [maxThreads]
+ */
+public class ParallelCsvLoader {
+
+    /** Ranges smaller than this are not worth a task of their own. */
+    private static final long MIN_RANGE = 1024 * 1024;
+
+    /** Ranges per thread, so uneven ranges still balance out. */
+    private static final int RANGES_PER_THREAD = 4;
+
+    /** A range must fit in one mapped buffer. */
+    private static final long MAX_RANGE = Integer.MAX_VALUE - 8;
+
+    /** Threads used by {@link #readAll(Path)}; 1 keeps loading sequential. */
+    public static final int DEFAULT_PARALLELISM = Integer.getInteger("quiz.parse.parallelism", 1);
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ParallelCsvLoader <bank.csv> [maxThreads]");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        readAll(file, 1); // warm-up
+        double base = 0;
+        System.out.printf("%8s %10s %10s %10s%n", "threads", "ms", "speedup", "efficiency");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long best = Long.MAX_VALUE;
+            int rows = 0;
+            for (int run = 0; run < 3; run++) {
+                long start = System.nanoTime();
+                rows = readAll(file, threads).size();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            double ms = best / 1e6;
+            if (threads == 1) base = ms;
+            System.out.printf("%8d %10.1f %10.2f %9.0f%%   (%,d rows)%n",
+                    threads, ms, base / ms, 100 * base / ms / threads, rows);
+        }
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Parses the file with -Dquiz.parse.parallelism threads (sequentially by default).
+     */
+    public static List<QuizQuestion> readAll(Path file) throws IOException {
+        return readAll(file, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Parses the file with up to {@code parallelism} threads.
+     */
+    public static List<QuizQuestion> readAll(Path file, int parallelism) throws IOException {
+        if (parallelism <= 1 || GzipBankReader.isCompressed(file)) {
+            return CsvQuestionParser.readAll(file);
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<QuizQuestion> questions = readAll(file, pool, parallelism * RANGES_PER_THREAD);
+            return questions != null ? questions : CsvQuestionParser.readAll(file);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Parallel parse, or null if the file's quoting is irregular and it must be read sequentially.
+     */
+    private static List<QuizQuestion> readAll(Path file, ForkJoinPool pool, int maxRanges) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int ranges = (int) Math.max(1, Math.min(maxRanges, size / MIN_RANGE));
+            ranges = (int) Math.max(ranges, (size + MAX_RANGE - 1) / MAX_RANGE);
+
+            // Pass 1: scan nominal ranges for quote counts and candidate record starts.
+            List<ForkJoinTask<Scan>> scans = new ArrayList<>(ranges);
+            for (int i = 0; i < ranges; i++) {
+                long from = size * i / ranges;
+                long to = size * (i + 1) / ranges;
+                scans.add(pool.submit(() -> scan(map(channel, from, to), from)));
+            }
+
+            // Align every range start to the first record boundary after it.
+            long[] starts = new long[ranges + 1];
+            long quotes = 0;
+            for (int i = 0; i < ranges; i++) {
+                Scan scan = join(scans.get(i));
+                if (i > 0) {
+                    long newline = (quotes & 1) == 0 ? scan.firstNewlineEven : scan.firstNewlineOdd;
+                    // No boundary in this range: it belongs entirely to the previous record.
+                    starts[i] = newline < 0 ? -1 : newline + 1;
+                }
+                quotes += scan.quotes;
+            }
+            starts[ranges] = size;
+            for (int i = ranges - 1; i > 0; i--) {
+                if (starts[i] < 0) starts[i] = starts[i + 1];
+            }
+
+            // Pass 2: parse the aligned ranges independently.
+            List<ForkJoinTask<Chunk>> chunks = new ArrayList<>(ranges);
+            for (int i = 0; i < ranges; i++) {
+                long from = starts[i];
+                long to = starts[i + 1];
+                boolean first = i == 0;
+                boolean last = i == ranges - 1;
+                chunks.add(pool.submit(() -> parse(map(channel, from, to), first, last)));
+            }
+
+            // Ordered merge.
+            List<Chunk> parsed = new ArrayList<>(ranges);
+            int total = 0;
+            for (ForkJoinTask<Chunk> task : chunks) {
+                Chunk chunk = join(task);
+                if (!chunk.regular) return null;
+                parsed.add(chunk);
+                total += chunk.questions.size();
+            }
+            List<QuizQuestion> questions = new ArrayList<>(total);
+            for (Chunk chunk : parsed) {
+                questions.addAll(chunk.questions);
+            }
+            return questions;
+        }
+    }
+
+    private static final class Scan {
+        long quotes;
+        long firstNewlineEven = -1; // absolute offsets
+        long firstNewlineOdd = -1;
+    }
+
+    private static final class Chunk {
+        final List<QuizQuestion> questions;
+        final boolean regular;
+
+        Chunk(List<QuizQuestion> questions, boolean regular) {
+            this.questions = questions;
+            this.regular = regular;
+        }
+    }
+
+    private static Scan scan(ByteBuffer buf, long base) {
+        Scan scan = new Scan();
+        long quotes = 0;
+        for (int i = 0, n = buf.limit(); i < n; i++) {
+            byte b = buf.get(i);
+            if (b == '"') {
+                quotes++;
+            } else if (b == '\n') {
+                if ((quotes & 1) == 0) {
+                    if (scan.firstNewlineEven < 0) scan.firstNewlineEven = base + i;
+                } else if (scan.firstNewlineOdd < 0) {
+                    scan.firstNewlineOdd = base + i;
+                }
+                if (scan.firstNewlineEven >= 0 && scan.firstNewlineOdd >= 0) {
+                    // Both candidates found; only the quote count is still needed.
+                    for (int j = i + 1; j < n; j++) {
+                        if (buf.get(j) == '"') quotes++;
+                    }
+                    break;
+                }
+            }
+        }
+        scan.quotes = quotes;
+        return scan;
+    }
+
+    private static Chunk parse(ByteBuffer buf, boolean startOfFile, boolean endOfFile) {
+        List<QuizQuestion> questions = new ArrayList<>();
+        CsvQuestionParser parser = new CsvQuestionParser(questions::add);
+        if (!startOfFile) parser.startMidFile();
+        parser.feed(buf);
+        boolean regular = parser.getIrregularQuotes() == 0 && (endOfFile || parser.isAtRecordBoundary());
+        parser.finish();
+        return new Chunk(questions, regular);
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long from, long to) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T join(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+}
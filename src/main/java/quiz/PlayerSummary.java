@@ -0,0 +1,37 @@
+package quiz;
+
+import java.time.LocalDateTime;
+
+/**
+ * One player's best result and attempt count (see {@link ResultStore#getPlayerSummary(String)}).
+ */
+public class PlayerSummary {
+    private final String username;
+    private final LeaderboardEntry best;
+    private final int attempts;
+    private final LocalDateTime lastPlayed;
+
+    public PlayerSummary(String username, LeaderboardEntry best, int attempts, LocalDateTime lastPlayed) {
+        this.username = username;
+        this.best = best;
+        this.attempts = attempts;
+        this.lastPlayed = lastPlayed;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /** The player's best result (highest score, earliest on ties). */
+    public LeaderboardEntry getBest() {
+        return best;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getLastPlayed() {
+        return lastPlayed;
+    }
+}
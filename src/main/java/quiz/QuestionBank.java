@@ -0,0 +1,66 @@
+package quiz;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Read-only, index-addressable collection of quiz questions.
+ *
+ * Implementations may hold fully materialized questions or create each
+ * {@link QuizQuestion} on demand when {@link #get(int)} is called.
+ */
+public interface QuestionBank {
+
+    int size();
+
+    QuizQuestion get(int index);
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Position of the question in the bank file it came from. Same as {@code index} except for
+     * quizzes drawn by {@link QuestionSampler}.
+     */
+    default int sourceIndex(int index) {
+        return index;
+    }
+
+    /**
+     * Opens a compiled (.qzb) bank, or parses a CSV bank fully into a {@link CompactQuestionBank}
+     * (on several cores if -Dquiz.parse.parallelism is set).
+     */
+    static QuestionBank load(Path file) throws IOException {
+        long start = QuizMetrics.start();
+        QuizEvents.BankLoad event = new QuizEvents.BankLoad();
+        event.begin();
+        boolean compiled = CompiledQuestionBank.isCompiledBank(file);
+        QuestionBank bank = compiled
+                ? CompiledQuestionBank.open(file)
+                : CompactQuestionBank.load(file);
+        QuizMetrics.bankLoaded(compiled ? 0 : bank.size(), start);
+        QuizEvents.commitBankLoad(event, file.toString(), bank.size(), Files.size(file), compiled);
+        return bank;
+    }
+
+    /**
+     * Wraps an already parsed list of questions.
+     */
+    static QuestionBank of(List<QuizQuestion> questions) {
+        List<QuizQuestion> copy = List.copyOf(questions);
+        return new QuestionBank() {
+            @Override
+            public int size() {
+                return copy.size();
+            }
+
+            @Override
+            public QuizQuestion get(int index) {
+                return copy.get(index);
+            }
+        };
+    }
+}
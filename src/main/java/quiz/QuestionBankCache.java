@@ -0,0 +1,295 @@
+package quiz;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of loaded question banks, keyed by file identity (canonical path, size and
+ * last-modified time), with a byte budget and LRU eviction.
+ *
+ * Cached banks are never modified, so one instance is shared by every session that opens the
+ * same file. When a file changes on disk its identity changes and the stale entry is replaced
+ * on the next lookup. Concurrent loads of the same file parse it only once.
+ *
+ * The budget comes from -Dquiz.cache.maxBytes (default 256 MB) for the {@link #shared()} cache.
+ * Sizes of parsed banks are estimated from their string contents; compiled (.qzb) banks live
+ * in mapped memory outside the heap and only count a small fixed overhead.
+ */
+public class QuestionBankCache {
+
+    private static final long DEFAULT_MAX_BYTES = Long.getLong("quiz.cache.maxBytes", 256L * 1024 * 1024);
+
+    /** Rough per-object costs used by {@link #estimateBytes(QuestionBank)}. */
+    private static final long QUESTION_OVERHEAD = 72;
+    private static final long STRING_OVERHEAD = 40;
+    private static final long MAPPED_BANK_OVERHEAD = 1024;
+
+    private static volatile QuestionBankCache shared;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Key, CompletableFuture<QuestionBank>> inFlight = new ConcurrentHashMap<>();
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public QuestionBankCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Process-wide cache used by the app and the server.
+     */
+    public static QuestionBankCache shared() {
+        QuestionBankCache c = shared;
+        if (c == null) {
+            synchronized (QuestionBankCache.class) {
+                c = shared;
+                if (c == null) {
+                    c = new QuestionBankCache(DEFAULT_MAX_BYTES);
+                    shared = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Identity of a bank file at a point in time.
+     */
+    public static final class Key {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+
+        private Key(Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public static Key of(Path file) throws IOException {
+            Path real = file.toRealPath();
+            BasicFileAttributes attrs = Files.readAttributes(real, BasicFileAttributes.class);
+            return new Key(real, attrs.size(), attrs.lastModifiedTime().toMillis());
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return size == k.size && lastModified == k.lastModified && path.equals(k.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, size, lastModified);
+        }
+
+        @Override
+        public String toString() {
+            return path + " (" + size + " bytes, modified " + lastModified + ")";
+        }
+    }
+
+    private static final class Entry {
+        final Key key;
+        final QuestionBank bank;
+        final long bytes;
+
+        Entry(Key key, QuestionBank bank, long bytes) {
+            this.key = key;
+            this.bank = bank;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Returns the cached bank for the file, loading it with {@link QuestionBank#load(Path)} on a miss.
+     */
+    public QuestionBank load(Path file) throws IOException {
+        Key key = Key.of(file);
+        QuestionBank cached = get(key);
+        if (cached != null) return cached;
+
+        CompletableFuture<QuestionBank> mine = new CompletableFuture<>();
+        CompletableFuture<QuestionBank> loading = inFlight.putIfAbsent(key, mine);
+        if (loading != null) {
+            return await(loading);
+        }
+        try {
+            QuestionBank bank = QuestionBank.load(key.getPath());
+            put(key, bank);
+            mine.complete(bank);
+            return bank;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Returns the bank cached for this exact file identity, or null. Counts a hit or a miss.
+     */
+    public QuestionBank get(Key key) {
+        synchronized (this) {
+            Entry e = entries.get(key.getPath());
+            if (e != null && e.key.equals(key)) {
+                hits.incrementAndGet();
+                return e.bank;
+            }
+            if (e != null) {
+                // The file changed since it was cached.
+                remove(key.getPath());
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches a fully loaded bank under the identity the file had when loading started.
+     * The bank must not change afterwards. Banks larger than the whole budget are not cached.
+     */
+    public void put(Key key, QuestionBank bank) {
+        put(key, bank, estimateBytes(bank));
+    }
+
+    /**
+     * Like {@link #put(Key, QuestionBank)} with the size already worked out by
+     * {@link #estimateBytes(QuestionBank)}, which walks the whole bank; callers on the FX thread
+     * compute it on their loader thread first.
+     */
+    public void put(Key key, QuestionBank bank, long bytes) {
+        if (bank instanceof GrowingQuestionBank && !((GrowingQuestionBank) bank).isComplete()) {
+            throw new IllegalArgumentException("Bank is still loading");
+        }
+        synchronized (this) {
+            remove(key.getPath());
+            if (bytes > maxBytes) return;
+            entries.put(key.getPath(), new Entry(key, bank, bytes));
+            totalBytes += bytes;
+            Iterator<Entry> it = entries.values().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                Entry eldest = it.next();
+                it.remove();
+                totalBytes -= eldest.bytes;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public synchronized void invalidate(Path file) throws IOException {
+        remove(file.toRealPath());
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    private void remove(Path path) {
+        Entry old = entries.remove(path);
+        if (old != null) totalBytes -= old.bytes;
+    }
+
+    private static QuestionBank await(CompletableFuture<QuestionBank> loading) throws IOException {
+        try {
+            return loading.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for bank to load", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Approximate heap footprint of a bank: string contents plus per-object overhead.
+     */
+    static long estimateBytes(QuestionBank bank) {
+        if (bank instanceof CompiledQuestionBank) {
+            return MAPPED_BANK_OVERHEAD;
+        }
+        if (bank instanceof CompactQuestionBank) {
+            return ((CompactQuestionBank) bank).estimateBytes();
+        }
+        long bytes = 0;
+        for (int i = 0, n = bank.size(); i < n; i++) {
+            QuizQuestion q = bank.get(i);
+            bytes += QUESTION_OVERHEAD
+                    + STRING_OVERHEAD + q.getQuestion().length()
+                    + STRING_OVERHEAD + q.getCorrectAnswerRaw().length()
+                    + STRING_OVERHEAD + q.getCorrectAnswerNormalized().length();
+            for (int o = 0; o < 4; o++) {
+                bytes += STRING_OVERHEAD + q.getOption(o).length();
+            }
+        }
+        return bytes;
+    }
+
+    // --------------------
+    // Statistics
+    // --------------------
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("QuestionBankCache{banks=%d, bytes=%,d/%,d, hits=%d, misses=%d, evictions=%d}",
+                entries.size(), totalBytes, maxBytes, hits.get(), misses.get(), evictions.get());
+    }
+}
@@ -0,0 +1,140 @@
+package quiz;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Compiles a CSV question bank into the indexed binary format read by {@link CompiledQuestionBank}.
+ *
+ * File layout (big-endian):
+ * <pre>
+ * header   int magic "QZB1", int question count, long offset-table position
+ * records  byte correct option index (-1 if unresolved),
+ *          then question, options A-D and raw answer, each as int length + UTF-8 bytes
+ * table    one long record offset per question
+ * </pre>
+ * A record never straddles a {@link CompiledQuestionBank#SEGMENT_SIZE} boundary, so the
+ * reader can map the file in fixed segments and decode every record from a single buffer.
+ *
+ * Usage: java quiz.QuestionBankCompiler questions.csv questions.qzb
+ */
+public class QuestionBankCompiler {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: QuestionBankCompiler <input.csv> <output.qzb>");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        int count = compile(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.printf("Compiled %d questions in %d ms%n", count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Streams the CSV through {@link CsvQuestionParser} and writes the compiled bank.
+     * Returns the number of questions written.
+     */
+    public static int compile(Path csv, Path out) throws IOException {
+        Writer writer = new Writer(Files.newOutputStream(out));
+        try (writer) {
+            CsvQuestionParser.parse(csv, q -> {
+                try {
+                    writer.add(q);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.writeTable();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        // The header is only valid once the table has been written; patch it last.
+        ByteBuffer header = ByteBuffer.allocate(CompiledQuestionBank.HEADER_SIZE);
+        header.putInt(CompiledQuestionBank.MAGIC).putInt(writer.count).putLong(writer.tableOffset).flip();
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.WRITE)) {
+            channel.write(header, 0);
+        }
+        return writer.count;
+    }
+
+    private static final class Writer implements AutoCloseable {
+        private final DataOutputStream out;
+        private long position;
+        private long[] offsets = new long[1024];
+        private int count;
+        private long tableOffset;
+
+        Writer(OutputStream raw) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(raw, 1 << 16));
+            // Placeholder header; patched in place by compile().
+            out.writeInt(CompiledQuestionBank.MAGIC);
+            out.writeInt(0);
+            out.writeLong(0);
+            position = CompiledQuestionBank.HEADER_SIZE;
+        }
+
+        void add(QuizQuestion q) throws IOException {
+            byte[][] fields = {
+                    utf8(q.getQuestion()), utf8(q.getOption(0)), utf8(q.getOption(1)),
+                    utf8(q.getOption(2)), utf8(q.getOption(3)), utf8(q.getCorrectAnswerRaw())
+            };
+            long size = 1;
+            for (byte[] f : fields) size += 4 + f.length;
+            if (size > CompiledQuestionBank.SEGMENT_SIZE) {
+                throw new IOException("Question " + count + " is too large to compile");
+            }
+            long segmentEnd = (position / CompiledQuestionBank.SEGMENT_SIZE + 1) * CompiledQuestionBank.SEGMENT_SIZE;
+            if (position + size > segmentEnd) {
+                pad(segmentEnd - position);
+            }
+
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[count++] = position;
+
+            out.writeByte(q.getCorrectOptionIndex());
+            for (byte[] f : fields) {
+                out.writeInt(f.length);
+                out.write(f);
+            }
+            position += size;
+        }
+
+        void writeTable() throws IOException {
+            // Align to 8 bytes so table entries never straddle a segment boundary.
+            pad((8 - position % 8) % 8);
+            tableOffset = position;
+            for (int i = 0; i < count; i++) {
+                out.writeLong(offsets[i]);
+            }
+            position += 8L * count;
+        }
+
+        private void pad(long n) throws IOException {
+            for (long i = 0; i < n; i++) out.writeByte(0);
+            position += n;
+        }
+
+        private static byte[] utf8(String s) {
+            return s.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
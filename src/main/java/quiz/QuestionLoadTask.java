@@ -0,0 +1,98 @@
+package quiz;
+
+import javafx.concurrent.Task;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Background task that streams a CSV bank into a {@link GrowingQuestionBank}, which stores it
+ * in the {@link CompactQuestionBank} layout as it goes.
+ *
+ * The task's value is published as soon as the first question has been parsed, so the
+ * quiz can start while the rest of the file is still loading. Progress is reported as
+ * bytes read out of the file size, and the message carries the row count.
+ */
+public class QuestionLoadTask extends Task<GrowingQuestionBank> {
+
+    /** Progress is published at most once per this many rows. */
+    private static final int REPORT_EVERY = 4096;
+
+    private final Path file;
+    private final GrowingQuestionBank bank = new GrowingQuestionBank();
+    private final BankWatcher.RowIndex rows;
+    private volatile long estimatedBytes;
+
+    public QuestionLoadTask(Path file) {
+        this(file, false);
+    }
+
+    /**
+     * @param recordRows also record where each row starts and its hash, so the loaded bank can
+     *                   be handed to a {@link BankWatcher} without parsing the file again
+     */
+    public QuestionLoadTask(Path file, boolean recordRows) {
+        this.file = file;
+        this.rows = recordRows ? new BankWatcher.RowIndex() : null;
+    }
+
+    public GrowingQuestionBank getBank() {
+        return bank;
+    }
+
+    /**
+     * Cache size of the complete bank, estimated on the loader thread once loading succeeded
+     * (see {@link QuestionBankCache#put(QuestionBankCache.Key, QuestionBank, long)}).
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /** The rows recorded during the load, or null if not asked to record them. */
+    public BankWatcher.RowIndex getRowIndex() {
+        return rows;
+    }
+
+    @Override
+    protected GrowingQuestionBank call() throws Exception {
+        long start = QuizMetrics.start();
+        QuizEvents.BankLoad event = new QuizEvents.BankLoad();
+        event.begin();
+        long totalBytes = Files.size(file);
+        CsvQuestionParser[] parser = new CsvQuestionParser[1];
+        parser[0] = new CsvQuestionParser(q -> {
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+            bank.add(q);
+            long rows = parser[0].getRowsParsed();
+            if (rows == 1) {
+                updateValue(bank);
+            }
+            if (rows % REPORT_EVERY == 0) {
+                report(parser[0], totalBytes);
+            }
+        }, rows == null ? null : (row, hash) -> {
+            rows.add(parser[0].getRecordStart(), hash);
+            return true;
+        });
+
+        try {
+            parser[0].readFile(file);
+        } finally {
+            bank.complete();
+        }
+        report(parser[0], totalBytes);
+        estimatedBytes = QuestionBankCache.estimateBytes(bank.getCompact());
+        QuizMetrics.bankLoaded(parser[0].getRowsParsed(), start);
+        QuizEvents.commitBankLoad(event, file.toString(), bank.size(), totalBytes, false);
+        return bank;
+    }
+
+    private void report(CsvQuestionParser parser, long totalBytes) {
+        updateProgress(parser.getFileBytesRead(), totalBytes);
+        updateMessage(String.format("Loaded %,d questions (%,d / %,d KB)",
+                parser.getRowsParsed(), parser.getFileBytesRead() / 1024, totalBytes / 1024));
+    }
+}
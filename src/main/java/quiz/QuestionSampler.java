@@ -0,0 +1,198 @@
+package quiz;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Draws random quizzes of N questions from banks of any size.
+ *
+ * <ul>
+ *   <li>CSV files are streamed once through {@link CsvQuestionParser} with reservoir sampling
+ *       (Vitter's Algorithm L). Only rows that enter the reservoir are decoded, about
+ *       N·(1 + ln(rows/N)) of them, so memory is O(N) however big the file is.</li>
+ *   <li>Indexed banks (compiled .qzb or already in memory) draw N distinct indices directly
+ *       (Floyd's algorithm) and fetch just those questions: O(N) time and memory.</li>
+ * </ul>
+ * Draws are uniform without replacement and returned in random order. The same seed always
+ * yields the same quiz for the same file; without a seed every call draws independently.
+ */
+public final class QuestionSampler {
+
+    private QuestionSampler() {
+    }
+
+    /**
+     * Samples from a file: compiled banks by index, CSV banks by streaming.
+     */
+    public static QuestionBank sample(Path file, int count, long seed) throws IOException {
+        if (CompiledQuestionBank.isCompiledBank(file)) {
+            return sample(CompiledQuestionBank.open(file), count, seed);
+        }
+        return sampleCsv(file, count, new SplittableRandom(seed));
+    }
+
+    public static QuestionBank sample(Path file, int count) throws IOException {
+        return sample(file, count, randomSeed());
+    }
+
+    /**
+     * Samples from a bank that supports random access. The bank is not copied.
+     */
+    public static QuestionBank sample(QuestionBank bank, int count, long seed) {
+        checkCount(count);
+        SplittableRandom random = new SplittableRandom(seed);
+        int n = bank.size();
+        int k = Math.min(count, n);
+
+        // Floyd: k distinct indices from [0, n) with k random draws.
+        Set<Integer> chosen = new HashSet<>(k * 2);
+        int[] indices = new int[k];
+        int filled = 0;
+        for (int j = n - k; j < n; j++) {
+            int t = random.nextInt(j + 1);
+            int pick = chosen.contains(t) ? j : t;
+            chosen.add(pick);
+            indices[filled++] = pick;
+        }
+        shuffle(indices, random);
+
+        List<QuizQuestion> questions = new ArrayList<>(k);
+        for (int index : indices) {
+            questions.add(bank.get(index));
+        }
+        for (int i = 0; i < k; i++) {
+            indices[i] = bank.sourceIndex(indices[i]);
+        }
+        return sampled(questions, indices);
+    }
+
+    public static QuestionBank sample(QuestionBank bank, int count) {
+        return sample(bank, count, randomSeed());
+    }
+
+    /**
+     * Streams the CSV once and keeps a uniform random sample of up to {@code count} questions.
+     */
+    static QuestionBank sampleCsv(Path file, int count, SplittableRandom random) throws IOException {
+        checkCount(count);
+        QuizQuestion[] reservoir = new QuizQuestion[count];
+        int[] rows = new int[count];
+        Reservoir picker = new Reservoir(count, random);
+        int[] slot = new int[1];
+
+        CsvQuestionParser parser = new CsvQuestionParser(
+                q -> reservoir[slot[0]] = q,
+                (row, hash) -> {
+                    slot[0] = picker.slotFor(row);
+                    if (slot[0] < 0) return false;
+                    rows[slot[0]] = (int) row;
+                    return true;
+                });
+        parser.readFile(file);
+
+        int size = (int) Math.min(count, parser.getRowsParsed());
+        QuizQuestion[] sample = Arrays.copyOf(reservoir, size);
+        int[] sourceRows = Arrays.copyOf(rows, size);
+        // The first N rows fill the reservoir in file order; shuffle so the quiz order is random too.
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            QuizQuestion tmp = sample[i];
+            sample[i] = sample[j];
+            sample[j] = tmp;
+            int row = sourceRows[i];
+            sourceRows[i] = sourceRows[j];
+            sourceRows[j] = row;
+        }
+        return sampled(Arrays.asList(sample), sourceRows);
+    }
+
+    /**
+     * A drawn quiz that remembers where each question sits in the full bank, so per-question
+     * statistics ({@link AnswerLog}) are recorded against the bank rather than the draw.
+     */
+    private static QuestionBank sampled(List<QuizQuestion> questions, int[] sourceIndices) {
+        QuestionBank bank = QuestionBank.of(questions);
+        return new QuestionBank() {
+            @Override
+            public int size() {
+                return bank.size();
+            }
+
+            @Override
+            public QuizQuestion get(int index) {
+                return bank.get(index);
+            }
+
+            @Override
+            public int sourceIndex(int index) {
+                return sourceIndices[index];
+            }
+        };
+    }
+
+    /**
+     * Algorithm L: decides from the row index alone which rows enter the reservoir, jumping
+     * straight to the next accepted row instead of drawing a random number per row.
+     */
+    private static final class Reservoir {
+        private final int k;
+        private final SplittableRandom random;
+        private double w;
+        private long next;
+
+        Reservoir(int k, SplittableRandom random) {
+            this.k = k;
+            this.random = random;
+            this.w = Math.exp(Math.log(nextOpen()) / k);
+            this.next = k + skip();
+        }
+
+        /** Reservoir slot the row should be stored in, or -1 to skip it. */
+        int slotFor(long row) {
+            if (row < k) return (int) row;
+            if (row != next) return -1;
+            w *= Math.exp(Math.log(nextOpen()) / k);
+            next += skip() + 1;
+            return random.nextInt(k);
+        }
+
+        private long skip() {
+            double s = Math.floor(Math.log(nextOpen()) / Math.log1p(-w));
+            return s >= Long.MAX_VALUE / 2 ? Long.MAX_VALUE / 2 : (long) s;
+        }
+
+        /** Uniform in (0, 1). */
+        private double nextOpen() {
+            double u;
+            do {
+                u = random.nextDouble();
+            } while (u == 0.0);
+            return u;
+        }
+    }
+
+    private static void shuffle(int[] a, SplittableRandom random) {
+        for (int i = a.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+    }
+
+    private static void checkCount(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Sample size must be positive");
+        }
+    }
+
+    private static long randomSeed() {
+        return new SplittableRandom().nextLong();
+    }
+}
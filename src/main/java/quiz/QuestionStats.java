@@ -0,0 +1,153 @@
+package quiz;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Running answer statistics for one question of one bank: attempts, accuracy, how often each
+ * option was picked (the distractor distribution) and a response-time histogram.
+ *
+ * Maintained incrementally by {@link AnswerLog}; instances handed out by its query methods are
+ * snapshots. Response times use log-linear millisecond buckets (about 12% precision, capped at
+ * {@value #MAX_MILLIS} ms), so a question costs about half a kilobyte however often it is answered.
+ */
+public class QuestionStats {
+
+    static final int MAX_MILLIS = (1 << 17) - 1;
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (17 - SUB_BITS + 1) * SUB_COUNT;
+
+    private final long bankId;
+    private final int question;
+    private long attempts;
+    private long correct;
+    private long totalMillis;
+    private final long[] optionCounts = new long[4];
+    private final int[] latency = new int[BUCKETS];
+
+    QuestionStats(long bankId, int question) {
+        this.bankId = bankId;
+        this.question = question;
+    }
+
+    synchronized void record(int option, boolean wasCorrect, int millis) {
+        attempts++;
+        if (wasCorrect) correct++;
+        if (option >= 0 && option < optionCounts.length) optionCounts[option]++;
+        int ms = Math.max(0, Math.min(millis, MAX_MILLIS));
+        totalMillis += ms;
+        latency[bucketOf(ms)]++;
+    }
+
+    public long getBankId() {
+        return bankId;
+    }
+
+    public int getQuestion() {
+        return question;
+    }
+
+    public synchronized long getAttempts() {
+        return attempts;
+    }
+
+    public synchronized long getCorrect() {
+        return correct;
+    }
+
+    /** Share of attempts answered correctly (0-1), or 0 before the first attempt. */
+    public synchronized double getAccuracy() {
+        return attempts == 0 ? 0 : (double) correct / attempts;
+    }
+
+    /** How many times each option (A-D) was picked. */
+    public synchronized long[] getOptionCounts() {
+        return optionCounts.clone();
+    }
+
+    public synchronized double getMeanMillis() {
+        return attempts == 0 ? 0 : (double) totalMillis / attempts;
+    }
+
+    /**
+     * Response time at the given percentile (0-100), as the upper bound of its bucket.
+     */
+    public synchronized long getPercentileMillis(double percentile) {
+        long n = 0;
+        for (int count : latency) n += count;
+        if (n == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(n * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += latency[i];
+            if (seen >= target) return upperBoundOf(i);
+        }
+        return MAX_MILLIS;
+    }
+
+    synchronized QuestionStats copy() {
+        QuestionStats c = new QuestionStats(bankId, question);
+        c.merge(this);
+        return c;
+    }
+
+    private void merge(QuestionStats other) {
+        attempts += other.attempts;
+        correct += other.correct;
+        totalMillis += other.totalMillis;
+        for (int i = 0; i < optionCounts.length; i++) optionCounts[i] += other.optionCounts[i];
+        for (int i = 0; i < BUCKETS; i++) latency[i] += other.latency[i];
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Q%d: %d attempts, %.0f%% correct, p50 %d ms, p90 %d ms, picks A/B/C/D %d/%d/%d/%d",
+                question + 1, attempts, 100 * getAccuracy(), getPercentileMillis(50), getPercentileMillis(90),
+                optionCounts[0], optionCounts[1], optionCounts[2], optionCounts[3]);
+    }
+
+    // --------------------
+    // Persistence (see DBUtil)
+    // --------------------
+
+    synchronized long getTotalMillis() {
+        return totalMillis;
+    }
+
+    /** The latency histogram as a compact blob. */
+    synchronized byte[] latencyBytes() {
+        ByteBuffer buf = ByteBuffer.allocate(BUCKETS * Integer.BYTES);
+        for (int count : latency) buf.putInt(count);
+        return buf.array();
+    }
+
+    static QuestionStats restore(long bankId, int question, long attempts, long correct, long[] optionCounts,
+                                 long totalMillis, byte[] latencyBytes) {
+        QuestionStats s = new QuestionStats(bankId, question);
+        s.attempts = attempts;
+        s.correct = correct;
+        s.totalMillis = totalMillis;
+        System.arraycopy(optionCounts, 0, s.optionCounts, 0, s.optionCounts.length);
+        if (latencyBytes != null) {
+            ByteBuffer buf = ByteBuffer.wrap(latencyBytes);
+            for (int i = 0; i < BUCKETS && buf.remaining() >= Integer.BYTES; i++) s.latency[i] = buf.getInt();
+        }
+        return s;
+    }
+
+    private static int bucketOf(int ms) {
+        if (ms < SUB_COUNT) return ms;
+        int exp = 31 - Integer.numberOfLeadingZeros(ms);
+        int sub = (ms >>> (exp - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exp - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_COUNT) return bucket;
+        int exp = bucket / SUB_COUNT + SUB_BITS - 1;
+        long sub = bucket % SUB_COUNT;
+        long lower = (1L << exp) | (sub << (exp - SUB_BITS));
+        return lower + (1L << (exp - SUB_BITS)) - 1;
+    }
+}
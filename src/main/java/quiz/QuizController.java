@@ -1,5 +1,7 @@
 package quiz;
 
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -8,17 +10,18 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.nio.file.Path;
 import java.util.Optional;
-
-import static quiz.DBUtil.saveResult;
+import java.util.SplittableRandom;
 
 public class QuizController {
 
     @FXML private Label questionLabel;
     @FXML private Label scoreLabel;
     @FXML private Label timerLabel;
+    @FXML private Label loadStatusLabel;
 
     @FXML private Button loadBtn;
     @FXML private Button startBtn;
@@ -29,12 +32,29 @@ public class QuizController {
     @FXML private Button optionC;
     @FXML private Button optionD;
 
-    // Quiz state
-    private List<QuizQuestion> questions;
-    private int currentIndex = 0;
-    private int score = 0;
-    private boolean quizStarted = false;
-    private String username = "";
+    // Quiz state: the loaded bank, and the session playing it (all scoring lives in QuizSession)
+    private QuestionBank questions;
+    private QuizSession session;
+    private Path bankFile; // identifies the bank in the answer log
+
+    // Background CSV loading
+    private QuestionLoadTask loadTask;
+    private boolean waitingForQuestions = false;
+
+    // Optional live reload of the loaded CSV (-Dquiz.watch=true)
+    private static final boolean WATCH_BANKS = Boolean.getBoolean("quiz.watch");
+    private BankWatcher watcher;
+    private Path watchedFile;
+    private QuestionBank watchedBank; // latest snapshot of watchedFile from the watcher
+
+    // Optional random quizzes of N questions per player (-Dquiz.sampleSize=N, -Dquiz.sampleSeed=S)
+    private static final int SAMPLE_SIZE = Integer.getInteger("quiz.sampleSize", 0);
+    private static final Long SAMPLE_SEED = Long.getLong("quiz.sampleSeed");
+    private Path sampleFile; // CSV streamed for every quiz instead of being loaded
+
+    // Leaderboard window, built once and refreshed after each quiz
+    private Stage leaderboardStage;
+    private LeaderboardController leaderboardController;
 
     // Timer helper (assumes you have a QuizTimer class with start(seconds, onFinish) and stop())
     private final QuizTimer timer = new QuizTimer();
@@ -57,16 +77,53 @@ public class QuizController {
     }
 
     /**
-     * Load CSV file and parse questions. Enables Start button if successful.
+     * Load a CSV or compiled (.qzb) bank. Enables Start button as soon as questions are available.
+     * Compiled banks are memory-mapped; questions are decoded as they are displayed.
+     * CSV banks are parsed in the background; clicking the button again cancels loading.
      */
     @FXML
     private void loadCSV(ActionEvent event) {
+        if (loadTask != null && loadTask.isRunning()) {
+            loadTask.cancel();
+            return;
+        }
+
         Stage stage = (Stage) loadBtn.getScene().getWindow();
-        List<QuizQuestion> loaded = CSVReaderUtil.loadQuestions(stage);
+        File file = CSVReaderUtil.chooseFile(stage);
+        if (file == null) {
+            onBankLoaded(null);
+            return;
+        }
+
+        QuestionBank loaded = null;
+        try {
+            // Banks opened recently (and unchanged on disk since) come straight from the cache.
+            QuestionBankCache.Key key = QuestionBankCache.Key.of(file.toPath());
+            bankFile = key.getPath();
+            loaded = QuestionBankCache.shared().get(key);
+            if (loaded != null) {
+                loadStatusLabel.setText("Loaded " + loaded.size() + " questions from cache");
+                watchBank(key, null, null);
+            } else if (SAMPLE_SIZE > 0 && !CompiledQuestionBank.isCompiledBank(file.toPath())) {
+                prepareSampling(key.getPath());
+                return;
+            } else if (!CompiledQuestionBank.isCompiledBank(file.toPath())) {
+                startBackgroundLoad(key);
+                return;
+            } else {
+                loaded = QuestionBank.load(key.getPath());
+                QuestionBankCache.shared().put(key, loaded);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        onBankLoaded(loaded);
+    }
+
+    private void onBankLoaded(QuestionBank loaded) {
+        sampleFile = null;
         if (loaded != null && !loaded.isEmpty()) {
             this.questions = loaded;
-            score = 0;
-            currentIndex = 0;
             scoreLabel.setText("Score: 0");
             questionLabel.setText("Quiz loaded successfully. Click Start Quiz to begin.");
             startBtn.setDisable(false);
@@ -78,12 +135,131 @@ public class QuizController {
         }
     }
 
+    /**
+     * Sampling mode for a CSV that is not in memory: nothing is loaded up front; each quiz
+     * streams the file and keeps only its own random selection.
+     */
+    private void prepareSampling(Path file) {
+        questions = null;
+        sampleFile = file;
+        scoreLabel.setText("Score: 0");
+        questionLabel.setText("Each quiz draws " + SAMPLE_SIZE + " random questions from "
+                + file.getFileName() + ". Click Start Quiz to begin.");
+        startBtn.setDisable(false);
+        setButtonsDisabled(true);
+        nextBtn.setDisable(true);
+    }
+
+    /**
+     * Parse a CSV bank off the FX thread. The quiz becomes startable as soon as the first
+     * question is parsed; the remaining questions stream into the bank while the user plays.
+     */
+    private void startBackgroundLoad(QuestionBankCache.Key key) {
+        QuestionLoadTask task = new QuestionLoadTask(key.getPath(), WATCH_BANKS);
+        loadTask = task;
+
+        startBtn.setDisable(true);
+        questionLabel.setText("Loading quiz...");
+        loadBtn.setText("Cancel Loading");
+        loadStatusLabel.textProperty().bind(task.messageProperty());
+
+        task.valueProperty().addListener((obs, oldBank, bank) -> {
+            if (task == loadTask && oldBank == null && bank != null) {
+                onBankLoaded(bank);
+            }
+        });
+        task.progressProperty().addListener((obs, oldV, newV) -> resumeIfWaiting());
+        task.setOnSucceeded(e -> {
+            // Only complete banks are cached; a cancelled or failed load is parsed again next time.
+            // The size was estimated on the loader thread; walking a large bank here would stall the UI.
+            QuestionBankCache.shared().put(key, task.getBank().getCompact(), task.getEstimatedBytes());
+            finishBackgroundLoad(task);
+            if (task == loadTask) watchBank(key, task.getBank().getCompact(), task.getRowIndex());
+        });
+        task.setOnCancelled(e -> finishBackgroundLoad(task));
+        task.setOnFailed(e -> {
+            task.getException().printStackTrace();
+            finishBackgroundLoad(task);
+        });
+
+        Thread thread = new Thread(task, "quiz-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void finishBackgroundLoad(QuestionLoadTask task) {
+        if (task != loadTask) return;
+        loadBtn.setText("Load Quiz");
+        loadStatusLabel.textProperty().unbind();
+        if (task.isCancelled()) {
+            loadStatusLabel.setText("Loading cancelled (" + task.getBank().size() + " questions kept)");
+        }
+        if (task.getBank().isEmpty() && questions != task.getBank()) {
+            onBankLoaded(null);
+        }
+        resumeIfWaiting();
+    }
+
+    /**
+     * In watch mode, follow edits to the loaded CSV. Each reload swaps in a new immutable bank;
+     * a quiz in progress keeps the bank it started with and the next quiz gets the new one.
+     * A bank just parsed by {@link QuestionLoadTask} is handed over with the rows it recorded;
+     * a bank from the cache has none, so the watcher parses the file once and its snapshot
+     * replaces the cached copy.
+     */
+    private void watchBank(QuestionBankCache.Key key, CompactQuestionBank bank, BankWatcher.RowIndex rows) {
+        Path file = key.getPath();
+        if (!WATCH_BANKS || CompiledQuestionBank.isCompiledBank(file) || file.equals(watchedFile)) return;
+        if (watcher != null && watchedFile != null) {
+            watcher.unwatch(watchedFile);
+        }
+        watchedFile = file;
+        watchedBank = null;
+        // Hashing (or parsing) the file for the watcher stays off the FX thread.
+        Thread thread = new Thread(() -> {
+            try {
+                synchronized (this) {
+                    if (watcher == null) watcher = new BankWatcher();
+                }
+                java.util.function.Consumer<BankWatcher.Reload> listener =
+                        reload -> Platform.runLater(() -> onBankReloaded(reload));
+                QuestionBank snapshot = bank != null && rows != null
+                        ? watcher.watch(key, bank, rows, listener)
+                        : watcher.watch(file, listener);
+                Platform.runLater(() -> {
+                    // Unless a reload has already superseded it, play the watcher's snapshot.
+                    if (file.equals(watchedFile) && watchedBank == null) {
+                        watchedBank = snapshot;
+                        questions = snapshot;
+                    }
+                });
+            } catch (IOException e) {
+                System.err.println("❌ Error watching " + file + ":");
+                e.printStackTrace();
+            }
+        }, "quiz-watch-start");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void onBankReloaded(BankWatcher.Reload reload) {
+        if (!reload.getFile().equals(watchedFile)) return;
+        loadStatusLabel.setText("Bank updated: " + reload.getBank().size() + " questions ("
+                + reload.getRowsDecoded() + " changed, " + reload.getRowsRemoved() + " removed)");
+        boolean playing = session != null && session.isRunning();
+        watchedBank = reload.getBank();
+        questions = reload.getBank();
+        if (!playing) {
+            startBtn.setDisable(questions.isEmpty());
+        }
+    }
+
     /**
      * Prompt for username and start the quiz (start timer + display first question).
      */
     @FXML
     private void startQuiz(ActionEvent event) {
-        if (questions == null || questions.isEmpty()) {
+        if ((questions == null || questions.isEmpty()) && sampleFile == null) {
             questionLabel.setText("Please load a quiz file first!");
             return;
         }
@@ -98,12 +274,51 @@ public class QuizController {
             questionLabel.setText("Username required to start the quiz.");
             return;
         }
-        username = result.get().trim();
+        String username = result.get();
+
+        if (SAMPLE_SIZE <= 0) {
+            beginQuiz(username, questions);
+            return;
+        }
+        // Every player gets an independent draw unless a fixed seed makes them reproducible.
+        long seed = SAMPLE_SEED != null ? SAMPLE_SEED : new SplittableRandom().nextLong();
+        if (sampleFile == null) {
+            beginQuiz(username, QuestionSampler.sample(questions, SAMPLE_SIZE, seed));
+            return;
+        }
+        Path file = sampleFile;
+        Task<QuestionBank> draw = new Task<>() {
+            @Override
+            protected QuestionBank call() throws Exception {
+                return QuestionSampler.sample(file, SAMPLE_SIZE, seed);
+            }
+        };
+        startBtn.setDisable(true);
+        loadBtn.setDisable(true);
+        questionLabel.setText("Drawing " + SAMPLE_SIZE + " random questions...");
+        draw.setOnSucceeded(e -> {
+            if (draw.getValue().isEmpty()) {
+                questionLabel.setText("No questions loaded or file invalid.");
+                loadBtn.setDisable(false);
+                return;
+            }
+            beginQuiz(username, draw.getValue());
+        });
+        draw.setOnFailed(e -> {
+            draw.getException().printStackTrace();
+            questionLabel.setText("Could not read " + file.getFileName());
+            startBtn.setDisable(false);
+            loadBtn.setDisable(false);
+        });
+        Thread thread = new Thread(draw, "quiz-sampler");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
+    private void beginQuiz(String username, QuestionBank bank) {
         // initialize quiz state
-        quizStarted = true;
-        score = 0;
-        currentIndex = 0;
+        session = bankFile != null ? new QuizSession(bank, AnswerLog.bankId(bankFile)) : new QuizSession(bank);
+        session.start(username);
         scoreLabel.setText("Score: 0");
         startBtn.setDisable(true);
         loadBtn.setDisable(true);
@@ -121,18 +336,21 @@ public class QuizController {
      * Display the current question (or end quiz if beyond last).
      */
     private void displayQuestion() {
-        if (questions == null || currentIndex >= questions.size()) {
+        QuizQuestion q = session.current();
+        if (q == null) {
+            if (moreQuestionsPending()) {
+                waitForQuestions();
+                return;
+            }
             endQuiz();
             return;
         }
-        QuizQuestion q = questions.get(currentIndex);
-        questionLabel.setText((currentIndex + 1) + ". " + q.getQuestion());
+        questionLabel.setText((session.getCurrentIndex() + 1) + ". " + q.getQuestion());
 
-        String[] opts = q.getOptions();
-        optionA.setText(opts.length > 0 ? opts[0] : "");
-        optionB.setText(opts.length > 1 ? opts[1] : "");
-        optionC.setText(opts.length > 2 ? opts[2] : "");
-        optionD.setText(opts.length > 3 ? opts[3] : "");
+        optionA.setText(q.getOption(0));
+        optionB.setText(q.getOption(1));
+        optionC.setText(q.getOption(2));
+        optionD.setText(q.getOption(3));
 
         // reset enable/disable and visual states
         setButtonsDisabled(false);
@@ -144,29 +362,23 @@ public class QuizController {
      */
     @FXML
     private void handleOption(ActionEvent event) {
-        if (!quizStarted) return;
+        // guard: ignore clicks unless a question is waiting for an answer
+        if (session == null || session.getState() != QuizSession.State.ACTIVE) return;
         Button selected = (Button) event.getSource();
         if (selected == null) return;
+        long start = QuizMetrics.start();
 
-        // guard: if already answered, ignore
-        if (nextBtn.isDisable() == false && setOfOptionButtonsDisabled()) {
-            // if nextBtn is enabled and option buttons disabled, it means user already answered
-            return;
-        }
-
-        String selectedText = selected.getText();
-        QuizQuestion current = questions.get(currentIndex);
-        boolean correct = current.isCorrect(selectedText);
+        QuizQuestion current = session.current();
+        boolean correct = session.answer(optionIndexOf(selected));
 
         if (correct) {
-            score++;
-            scoreLabel.setText("Score: " + score);
+            scoreLabel.setText("Score: " + session.getScore());
             // optional: color green; but keep styling in CSS or inline
             selected.setStyle("-fx-background-color: linear-gradient(#00c853, #00b26a); -fx-text-fill: white;");
         } else {
             // highlight selected red and show correct green
             selected.setStyle("-fx-background-color: linear-gradient(#ff5252, #ff1744); -fx-text-fill: white;");
-            Button correctBtn = findButtonForAnswer(current.getCorrectAnswerNormalized());
+            Button correctBtn = optionButton(current.getCorrectOptionIndex());
             if (correctBtn != null) {
                 correctBtn.setStyle("-fx-background-color: linear-gradient(#00c853, #00b26a); -fx-text-fill: white;");
             }
@@ -175,6 +387,7 @@ public class QuizController {
         // After answering, disable options and enable next
         setButtonsDisabled(true);
         nextBtn.setDisable(false);
+        QuizMetrics.stop(QuizMetrics.Timer.ANSWER_FEEDBACK, start);
     }
 
     /**
@@ -182,18 +395,31 @@ public class QuizController {
      */
     @FXML
     private void nextQuestion(ActionEvent event) {
-        currentIndex++;
+        if (session == null || !session.isRunning()) return;
+        session.next();
         // reset button styles
         resetOptionStyles();
-        if (currentIndex >= questions.size()) {
-            endQuiz();
-            return;
-        }
-        setButtonsDisabled(false);
-        nextBtn.setDisable(true);
         displayQuestion();
     }
 
+    /**
+     * The player has caught up with a bank that is still loading: park until more questions arrive.
+     */
+    private void waitForQuestions() {
+        waitingForQuestions = true;
+        questionLabel.setText("Loading more questions...");
+        setButtonsDisabled(true);
+        nextBtn.setDisable(true);
+    }
+
+    private void resumeIfWaiting() {
+        if (!waitingForQuestions || session == null || !session.isRunning()) return;
+        if (session.current() != null || !moreQuestionsPending()) {
+            waitingForQuestions = false;
+            displayQuestion();
+        }
+    }
+
     private void showResultSavedAlert() {
         javafx.scene.control.Alert alert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.INFORMATION);
         alert.setTitle("Quiz Completed");
@@ -202,39 +428,66 @@ public class QuizController {
         alert.showAndWait();
     }
 
-    private void showLeaderboard() {
+    /**
+     * Builds the leaderboard window (FXML, controller and Stage) once. Called when the FX thread
+     * is idle after the first frame, so the first quiz end does not pay for it.
+     */
+    void preloadLeaderboard() {
+        if (leaderboardStage != null) return;
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/quiz/LeaderboardView.fxml"));
             Parent root = loader.load();
+            leaderboardController = loader.getController();
 
-            LeaderboardController controller = loader.getController();
-            controller.loadLeaderboard();
-
-            Stage stage = new Stage();
-            stage.setTitle("Leaderboard");
-            stage.setScene(new Scene(root));
-            stage.show();
+            leaderboardStage = new Stage();
+            leaderboardStage.setTitle("Leaderboard");
+            leaderboardStage.setScene(new Scene(root));
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    private void showLeaderboard() {
+        long start = QuizMetrics.start();
+        preloadLeaderboard();
+        if (leaderboardStage == null) return;
+        leaderboardController.loadLeaderboard();
+        leaderboardStage.show();
+        leaderboardStage.toFront();
+        QuizMetrics.stop(QuizMetrics.Timer.LEADERBOARD_LOAD, start);
+    }
+
     /**
      * Ends the quiz: stops timer, disables UI, saves result to DB.
      */
     private void endQuiz() {
-        quizStarted = false;
+        waitingForQuestions = false;
         timer.stop();
+        // Only the call that actually ends the session saves the result.
+        if (session == null || !session.end()) return;
 
-        questionLabel.setText("Quiz Complete! Final Score: " + score + "/" + questions.size());
+        int score = session.getScore();
+        String username = session.getUsername();
+        questionLabel.setText("Quiz Complete! Final Score: " + score + "/" + session.getBank().size());
         setButtonsDisabled(true);
         nextBtn.setDisable(true);
         startBtn.setDisable(false);
         loadBtn.setDisable(false);
 
         if (username != null && !username.isEmpty()) {
-            DBUtil.saveResult(username, score);
-            showLeaderboard(); // ✅ Show leaderboard immediately
+            // Saved by the write-behind writer; show the leaderboard once the result is committed.
+            String finalText = questionLabel.getText();
+            long endedAt = System.nanoTime();
+            DBUtil.saveResultAsync(username, score).whenComplete((saved, err) -> Platform.runLater(() -> {
+                if (err != null) {
+                    questionLabel.setText(finalText + " (result could not be saved)");
+                    return;
+                }
+                int rank = DBUtil.rankedLeaderboard().rankOf(saved);
+                questionLabel.setText(finalText + " Result saved." + (rank > 0 ? " Your rank: #" + rank : ""));
+                showLeaderboard();
+                QuizMetrics.stop(QuizMetrics.Timer.QUIZ_END_TO_LEADERBOARD, endedAt);
+            }));
         } else {
             System.out.println("⚠️ No username set, skipping DB save.");
         }
@@ -256,10 +509,12 @@ public class QuizController {
     }
 
     /**
-     * Returns true if option buttons are currently disabled.
+     * Returns true while a background load is still adding questions to the bank the session is
+     * playing (not necessarily {@code questions}: sampled and cached quizzes play another bank).
      */
-    private boolean setOfOptionButtonsDisabled() {
-        return optionA.isDisabled() && optionB.isDisabled() && optionC.isDisabled() && optionD.isDisabled();
+    private boolean moreQuestionsPending() {
+        QuestionBank bank = session != null ? session.getBank() : null;
+        return bank instanceof GrowingQuestionBank && !((GrowingQuestionBank) bank).isComplete();
     }
 
     /**
@@ -273,21 +528,26 @@ public class QuizController {
     }
 
     /**
-     * Find which Button corresponds to a normalized answer string.
-     * The parameter should be normalized (lowercase, trimmed) if necessary.
+     * Index (0-3) of an option button, or -1 if it is not one of them.
      */
-    private Button findButtonForAnswer(String normalizedAnswer) {
-        if (normalizedAnswer == null) return null;
-        String n = normalizedAnswer.trim().toLowerCase();
-
-        if (normalize(optionA.getText()).equals(n)) return optionA;
-        if (normalize(optionB.getText()).equals(n)) return optionB;
-        if (normalize(optionC.getText()).equals(n)) return optionC;
-        if (normalize(optionD.getText()).equals(n)) return optionD;
-        return null;
+    private int optionIndexOf(Button button) {
+        if (button == optionA) return 0;
+        if (button == optionB) return 1;
+        if (button == optionC) return 2;
+        if (button == optionD) return 3;
+        return -1;
     }
 
-    private String normalize(String s) {
-        return s == null ? "" : s.trim().replaceAll("\\s+", " ").toLowerCase();
+    /**
+     * Option button for an index (0-3), or null if the index is out of range.
+     */
+    private Button optionButton(int index) {
+        switch (index) {
+            case 0: return optionA;
+            case 1: return optionB;
+            case 2: return optionC;
+            case 3: return optionD;
+            default: return null;
+        }
     }
 }
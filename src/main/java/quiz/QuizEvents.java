@@ -0,0 +1,164 @@
+package quiz;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder events for the quiz. They cost next to nothing unless a recording
+ * enables them, e.g. {@code -XX:StartFlightRecording:filename=quiz.jfr}; view them under the
+ * "Quiz" category in JDK Mission Control or with {@code jfr print --events quiz.* quiz.jfr}.
+ *
+ * Duration events (bank load, DB write) follow the usual pattern: create, {@code begin()},
+ * do the work, then pass the event to the matching {@code commit...} helper here.
+ */
+public final class QuizEvents {
+
+    private QuizEvents() {
+    }
+
+    @Name("quiz.SessionStart")
+    @Label("Quiz Session Start")
+    @Category("Quiz")
+    public static class SessionStart extends Event {
+        @Label("Username")
+        String username;
+
+        @Label("Questions")
+        int questions;
+    }
+
+    @Name("quiz.Answer")
+    @Label("Quiz Answer")
+    @Category("Quiz")
+    public static class Answer extends Event {
+        @Label("Username")
+        String username;
+
+        @Label("Question Index")
+        int questionIndex;
+
+        @Label("Option")
+        int option;
+
+        @Label("Correct")
+        boolean correct;
+    }
+
+    @Name("quiz.SessionEnd")
+    @Label("Quiz Session End")
+    @Category("Quiz")
+    public static class SessionEnd extends Event {
+        @Label("Username")
+        String username;
+
+        @Label("Score")
+        int score;
+
+        @Label("Questions")
+        int questions;
+    }
+
+    @Name("quiz.BankLoad")
+    @Label("Question Bank Load")
+    @Category("Quiz")
+    @Description("Loading or parsing a question bank")
+    public static class BankLoad extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Questions")
+        int questions;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Compiled")
+        boolean compiled;
+    }
+
+    @Name("quiz.DbWrite")
+    @Label("Result Write")
+    @Category("Quiz")
+    @Description("One transaction writing a batch of quiz results")
+    public static class DbWrite extends Event {
+        @Label("Results")
+        int results;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    @Name("quiz.FirstFrame")
+    @Label("Time to First Frame")
+    @Category("Quiz")
+    @Description("Startup time: JVM start to the first rendered pulse of the main window")
+    public static class FirstFrame extends Event {
+        @Label("Since JVM Start")
+        @Timespan(Timespan.MILLISECONDS)
+        long sinceJvmStart;
+    }
+
+    static void firstFrame(long millisSinceJvmStart) {
+        FirstFrame event = new FirstFrame();
+        if (event.shouldCommit()) {
+            event.sinceJvmStart = millisSinceJvmStart;
+            event.commit();
+        }
+    }
+
+    static void sessionStarted(String username, int questions) {
+        SessionStart event = new SessionStart();
+        if (event.shouldCommit()) {
+            event.username = username;
+            event.questions = questions;
+            event.commit();
+        }
+    }
+
+    static void answered(String username, int questionIndex, int option, boolean correct) {
+        Answer event = new Answer();
+        if (event.shouldCommit()) {
+            event.username = username;
+            event.questionIndex = questionIndex;
+            event.option = option;
+            event.correct = correct;
+            event.commit();
+        }
+    }
+
+    static void sessionEnded(String username, int score, int questions) {
+        SessionEnd event = new SessionEnd();
+        if (event.shouldCommit()) {
+            event.username = username;
+            event.score = score;
+            event.questions = questions;
+            event.commit();
+        }
+    }
+
+    static void commitBankLoad(BankLoad event, String file, int questions, long bytes, boolean compiled) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = file;
+            event.questions = questions;
+            event.bytes = bytes;
+            event.compiled = compiled;
+            event.commit();
+        }
+    }
+
+    static void commitDbWrite(DbWrite event, int results, boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.results = results;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+}
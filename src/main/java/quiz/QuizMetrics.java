@@ -0,0 +1,214 @@
+package quiz;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Built-in counters and latency histograms for the quiz hot paths, published over JMX.
+ *
+ * Enabled with -Dquiz.metrics=true. The switch is a static final flag, so when it is off
+ * every call here is an inlined branch the JIT removes, and no clock is read.
+ * Typical use:
+ * <pre>
+ * long start = QuizMetrics.start();
+ * ... work ...
+ * QuizMetrics.stop(QuizMetrics.Timer.DB_SAVE, start);
+ * </pre>
+ * MBeans: {@code quiz:type=Metrics} for counters and {@code quiz:type=Latency,name=...} per timer
+ * (count, mean and percentiles in milliseconds). See {@link QuizEvents} for the matching
+ * Flight Recorder events, which are controlled by JFR itself.
+ */
+public final class QuizMetrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("quiz.metrics");
+
+    /** Timed operations; each gets its own histogram and MBean. */
+    public enum Timer {
+        BANK_LOAD("bankLoad"),
+        DB_SAVE("dbSave"),
+        DB_QUERY("dbQuery"),
+        LEADERBOARD_LOAD("leaderboardLoad"),
+        QUIZ_END_TO_LEADERBOARD("quizEndToLeaderboard"),
+        ANSWER_FEEDBACK("answerFeedback");
+
+        private final String mbeanName;
+
+        Timer(String mbeanName) {
+            this.mbeanName = mbeanName;
+        }
+    }
+
+    private static final LatencyHistogram[] HISTOGRAMS = new LatencyHistogram[Timer.values().length];
+
+    private static final LongAdder ROWS_PARSED = new LongAdder();
+    private static final LongAdder PARSE_NANOS = new LongAdder();
+    private static final LongAdder BANKS_LOADED = new LongAdder();
+    private static final LongAdder RESULTS_SAVED = new LongAdder();
+    private static final LongAdder SESSIONS_STARTED = new LongAdder();
+    private static final LongAdder SESSIONS_FINISHED = new LongAdder();
+    private static final LongAdder ANSWERS = new LongAdder();
+    private static final LongAdder CORRECT_ANSWERS = new LongAdder();
+    private static volatile long timeToFirstFrameMillis;
+
+    static {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            HISTOGRAMS[i] = new LatencyHistogram();
+        }
+        if (ENABLED) {
+            register();
+        }
+    }
+
+    private QuizMetrics() {
+    }
+
+    /**
+     * Start time for {@link #stop(Timer, long)}; 0 without reading the clock when disabled.
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    public static void stop(Timer timer, long start) {
+        if (ENABLED) {
+            HISTOGRAMS[timer.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * A bank finished loading. {@code parsedRows} is the number of CSV rows parsed (0 for a
+     * compiled bank, which is mapped rather than parsed).
+     */
+    public static void bankLoaded(long parsedRows, long start) {
+        if (ENABLED) {
+            long nanos = System.nanoTime() - start;
+            HISTOGRAMS[Timer.BANK_LOAD.ordinal()].record(nanos);
+            BANKS_LOADED.increment();
+            if (parsedRows > 0) {
+                ROWS_PARSED.add(parsedRows);
+                PARSE_NANOS.add(nanos);
+            }
+        }
+    }
+
+    public static void resultsSaved(int count, long start) {
+        if (ENABLED) {
+            HISTOGRAMS[Timer.DB_SAVE.ordinal()].record(System.nanoTime() - start);
+            RESULTS_SAVED.add(count);
+        }
+    }
+
+    public static void sessionStarted() {
+        if (ENABLED) SESSIONS_STARTED.increment();
+    }
+
+    public static void sessionFinished() {
+        if (ENABLED) SESSIONS_FINISHED.increment();
+    }
+
+    public static void answered(boolean correct) {
+        if (ENABLED) {
+            ANSWERS.increment();
+            if (correct) CORRECT_ANSWERS.increment();
+        }
+    }
+
+    /**
+     * Recorded once by {@link Main}: JVM start to the first rendered pulse of the main window.
+     * Also emitted as a {@link QuizEvents.FirstFrame} JFR event.
+     */
+    public static void firstFrame(long millisSinceJvmStart) {
+        timeToFirstFrameMillis = millisSinceJvmStart;
+        QuizEvents.firstFrame(millisSinceJvmStart);
+    }
+
+    public static LatencyHistogram histogram(Timer timer) {
+        return HISTOGRAMS[timer.ordinal()];
+    }
+
+    public static void reset() {
+        for (LatencyHistogram h : HISTOGRAMS) h.reset();
+        for (LongAdder a : new LongAdder[] { ROWS_PARSED, PARSE_NANOS, BANKS_LOADED, RESULTS_SAVED,
+                SESSIONS_STARTED, SESSIONS_FINISHED, ANSWERS, CORRECT_ANSWERS }) {
+            a.reset();
+        }
+    }
+
+    // --------------------
+    // JMX
+    // --------------------
+
+    /** Counters, as {@code quiz:type=Metrics}. */
+    public interface CountersMXBean {
+        long getRowsParsed();
+        double getRowsParsedPerSecond();
+        long getBanksLoaded();
+        long getResultsSaved();
+        long getSessionsStarted();
+        long getSessionsFinished();
+        long getAnswers();
+        long getCorrectAnswers();
+        long getTimeToFirstFrameMillis();
+        void reset();
+    }
+
+    /** One timer, as {@code quiz:type=Latency,name=...}. Times are in milliseconds. */
+    public interface LatencyMXBean {
+        long getCount();
+        double getMeanMillis();
+        double getP50Millis();
+        double getP95Millis();
+        double getP99Millis();
+        double getMaxMillis();
+    }
+
+    private static final class Counters implements CountersMXBean {
+        public long getRowsParsed() { return ROWS_PARSED.sum(); }
+        public double getRowsParsedPerSecond() {
+            long nanos = PARSE_NANOS.sum();
+            return nanos == 0 ? 0 : ROWS_PARSED.sum() * 1e9 / nanos;
+        }
+        public long getBanksLoaded() { return BANKS_LOADED.sum(); }
+        public long getResultsSaved() { return RESULTS_SAVED.sum(); }
+        public long getSessionsStarted() { return SESSIONS_STARTED.sum(); }
+        public long getSessionsFinished() { return SESSIONS_FINISHED.sum(); }
+        public long getAnswers() { return ANSWERS.sum(); }
+        public long getCorrectAnswers() { return CORRECT_ANSWERS.sum(); }
+        public long getTimeToFirstFrameMillis() { return timeToFirstFrameMillis; }
+        public void reset() { QuizMetrics.reset(); }
+    }
+
+    private static final class Latency implements LatencyMXBean {
+        private final LatencyHistogram h;
+
+        Latency(LatencyHistogram h) {
+            this.h = h;
+        }
+
+        public long getCount() { return h.getCount(); }
+        public double getMeanMillis() { return h.getMean() / 1e6; }
+        public double getP50Millis() { return h.getPercentile(50) / 1e6; }
+        public double getP95Millis() { return h.getPercentile(95) / 1e6; }
+        public double getP99Millis() { return h.getPercentile(99) / 1e6; }
+        public double getMaxMillis() { return h.getMax() / 1e6; }
+    }
+
+    private static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(new StandardMBean(new Counters(), CountersMXBean.class, true),
+                    new ObjectName("quiz:type=Metrics"));
+            for (Timer t : Timer.values()) {
+                server.registerMBean(new StandardMBean(new Latency(histogram(t)), LatencyMXBean.class, true),
+                        new ObjectName("quiz:type=Latency,name=" + t.mbeanName));
+            }
+        } catch (JMException e) {
+            System.err.println("❌ Error registering quiz metrics MBeans:");
+            e.printStackTrace();
+        }
+    }
+}
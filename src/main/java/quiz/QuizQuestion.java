@@ -15,7 +15,20 @@ public class QuizQuestion {
     private final String[] options; // length 4
     private final String correctAnswerRaw; // as read from CSV (could be "A" or option text)
 
+    // Resolved once at construction so answer checking never allocates.
+    private final boolean letterKey;        // CSV answer was a letter A-D
+    private final int correctIndex;         // 0-3, or -1 if the answer text matches no option
+    private final String correctNormalized; // normalized text of the correct answer
+
     public QuizQuestion(String question, String[] options, String correctAnswerRaw) {
+        this(question, options, correctAnswerRaw, -2);
+    }
+
+    /**
+     * Constructor for banks that stored the resolved option index (see {@link CompiledQuestionBank}).
+     * A {@code correctIndex} of -2 means "resolve from the answer key".
+     */
+    QuizQuestion(String question, String[] options, String correctAnswerRaw, int correctIndex) {
         this.question = question == null ? "" : question.trim();
         this.options = new String[4];
         for (int i = 0; i < 4; i++) {
@@ -26,6 +39,39 @@ public class QuizQuestion {
             }
         }
         this.correctAnswerRaw = correctAnswerRaw == null ? "" : correctAnswerRaw.trim();
+
+        this.letterKey = isLetter(this.correctAnswerRaw);
+        this.correctIndex = correctIndex >= -1 ? correctIndex : resolveCorrectIndex();
+        this.correctNormalized = this.correctIndex >= 0
+                ? normalize(this.options[this.correctIndex])
+                : normalize(this.correctAnswerRaw);
+    }
+
+    /**
+     * Flyweight over already trimmed, pooled strings (see {@link CompactQuestionBank}). The
+     * options array is shared between questions and never exposed, so it is not copied.
+     */
+    static QuizQuestion pooled(String question, String[] sharedOptions, String correctAnswerRaw,
+                               int correctIndex, String correctNormalized) {
+        return new QuizQuestion(question, sharedOptions, correctAnswerRaw, correctIndex, correctNormalized);
+    }
+
+    private QuizQuestion(String question, String[] sharedOptions, String correctAnswerRaw,
+                         int correctIndex, String correctNormalized) {
+        this.question = question;
+        this.options = sharedOptions;
+        this.correctAnswerRaw = correctAnswerRaw;
+        this.letterKey = isLetter(correctAnswerRaw);
+        this.correctIndex = correctIndex;
+        this.correctNormalized = correctNormalized;
+    }
+
+    private int resolveCorrectIndex() {
+        if (letterKey) return letterToIndex(correctAnswerRaw.charAt(0));
+        for (int i = 0; i < options.length; i++) {
+            if (matchesNormalized(options[i], correctAnswerRaw)) return i;
+        }
+        return -1;
     }
 
     public String getQuestion() {
@@ -34,11 +80,19 @@ public class QuizQuestion {
 
     /**
      * Returns a copy of the options array to avoid external mutation.
+     * Prefer {@link #getOption(int)}, which does not copy.
      */
     public String[] getOptions() {
         return options.clone();
     }
 
+    /**
+     * Returns the text of option 0-3.
+     */
+    public String getOption(int index) {
+        return options[index];
+    }
+
     /**
      * Returns the raw value found in the CSV for the correct answer.
      */
@@ -46,6 +100,14 @@ public class QuizQuestion {
         return correctAnswerRaw;
     }
 
+    /**
+     * Returns the index (0-3) of the correct option, or -1 if the CSV answer text
+     * does not match any of the options.
+     */
+    public int getCorrectOptionIndex() {
+        return correctIndex;
+    }
+
     /**
      * Returns a normalized representation of the correct answer:
      * - If CSV used a letter (A-D), this returns the normalized option text that corresponds to that letter.
@@ -54,14 +116,14 @@ public class QuizQuestion {
      * Normalization: trimmed, collapse whitespace, lower-case.
      */
     public String getCorrectAnswerNormalized() {
-        String ca = correctAnswerRaw == null ? "" : correctAnswerRaw.trim();
-        if (ca.matches("(?i)^[ABCD]$")) {
-            int idx = letterToIndex(ca.charAt(0));
-            if (idx >= 0 && idx < options.length) {
-                return normalize(options[idx]);
-            }
-        }
-        return normalize(ca);
+        return correctNormalized;
+    }
+
+    /**
+     * Returns true if the option at the given index (0-3) is the correct one.
+     */
+    public boolean isCorrect(int optionIndex) {
+        return correctIndex >= 0 && optionIndex == correctIndex;
     }
 
     /**
@@ -69,28 +131,21 @@ public class QuizQuestion {
      * Accepts either:
      *  - the option text (full or normalized), or
      *  - the letter A/B/C/D (case-insensitive) if the UI passes that
+     * Does not allocate.
      */
     public boolean isCorrect(String selectedOptionText) {
         if (selectedOptionText == null) return false;
-        String sel = selectedOptionText.trim();
-
-        // If CSV correct answer was a letter, compare by index.
-        String ca = correctAnswerRaw == null ? "" : correctAnswerRaw.trim();
-        if (ca.matches("(?i)^[ABCD]$")) {
-            int correctIdx = letterToIndex(ca.charAt(0));
-            // If caller passed the letter too, accept it.
-            if (sel.matches("(?i)^[ABCD]$")) {
-                return letterToIndex(sel.charAt(0)) == correctIdx;
-            }
-            // Otherwise compare selected text normalized with the correct option text.
-            if (correctIdx >= 0 && correctIdx < options.length) {
-                return normalize(options[correctIdx]).equals(normalize(sel));
+
+        // If CSV correct answer was a letter and the caller passed a letter too, compare by index.
+        if (letterKey) {
+            int selectedLetter = trimmedLetterIndex(selectedOptionText);
+            if (selectedLetter >= 0) {
+                return selectedLetter == correctIndex;
             }
-            return false;
         }
 
-        // If CSV correct answer was option text (not letter), compare normalized texts.
-        return normalize(ca).equals(normalize(sel));
+        // Otherwise compare selected text normalized with the correct answer text.
+        return matchesNormalized(selectedOptionText, correctNormalized);
     }
 
     // --------------------
@@ -103,10 +158,67 @@ public class QuizQuestion {
         return -1;
     }
 
+    private static boolean isLetter(String trimmed) {
+        return trimmed.length() == 1 && letterToIndex(trimmed.charAt(0)) >= 0;
+    }
+
+    /**
+     * Index of a lone A-D letter surrounded only by whitespace, or -1.
+     */
+    private static int trimmedLetterIndex(String s) {
+        int start = 0;
+        int end = s.length();
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        return end - start == 1 ? letterToIndex(s.charAt(start)) : -1;
+    }
+
     private static String normalize(String s) {
         if (s == null) return "";
         // collapse internal whitespace to single space, trim, lowercase
-        return s.trim().replaceAll("\\s+", " ").toLowerCase();
+        StringBuilder sb = new StringBuilder(s.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c <= ' ') {
+                pendingSpace = sb.length() > 0;
+            } else {
+                if (pendingSpace) sb.append(' ');
+                pendingSpace = false;
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Equivalent to normalize(a).equals(normalize(b)) but walks both strings in place.
+     */
+    private static boolean matchesNormalized(String a, String b) {
+        int i = 0;
+        int j = 0;
+        int la = a.length();
+        int lb = b.length();
+        while (i < la && a.charAt(i) <= ' ') i++;
+        while (j < lb && b.charAt(j) <= ' ') j++;
+        while (i < la && j < lb) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(j);
+            if (ca <= ' ' || cb <= ' ') {
+                if (ca > ' ' || cb > ' ') return false;
+                while (i < la && a.charAt(i) <= ' ') i++;
+                while (j < lb && b.charAt(j) <= ' ') j++;
+                // Trailing whitespace on one side only is fine; a gap before more text must be on both.
+                if ((i < la) != (j < lb)) return false;
+                continue;
+            }
+            if (ca != cb && Character.toLowerCase(ca) != Character.toLowerCase(cb)) return false;
+            i++;
+            j++;
+        }
+        while (i < la && a.charAt(i) <= ' ') i++;
+        while (j < lb && b.charAt(j) <= ' ') j++;
+        return i == la && j == lb;
     }
 
     @Override
@@ -0,0 +1,484 @@
+package quiz;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless multi-player mode: serves quizzes over HTTP with the JDK's built-in server and one
+ * virtual thread per request. Scoring goes through {@link QuizSession} / {@link QuizQuestion}
+ * and results are persisted with {@link DBUtil}, exactly as in the JavaFX app.
+ *
+ * Endpoints (parameters in the query string, JSON responses):
+ * <pre>
+ * POST /banks?path=questions.csv            load a CSV, .csv.gz or .qzb bank from the bank directory
+ * GET  /banks/ID/stats?limit=10             hardest questions by answer accuracy (see AnswerLog)
+ * POST /sessions?bank=ID&amp;username=NAME      start a session; returns the first question
+ *      [&amp;sample=N[&amp;seed=S]]                   ... on N random questions (reproducible with a seed)
+ * GET  /sessions/ID                         current question, score and state
+ * POST /sessions/ID/answer?option=0-3       answer the current question
+ * POST /sessions/ID/next                    next question; ends and saves the quiz after the last one
+ * POST /sessions/ID/end                     end now and save the result
+ * GET  /leaderboard?limit=10                top results
+ *      [&amp;view=best|today|week]                ... one per player: overall, today or this week
+ * </pre>
+ * Sessions end on their own after -Dquiz.server.sessionSeconds (default 60, 0 for no limit), like
+ * the desktop countdown; the result is saved just as for /end. Independently of that limit, a
+ * session with no request for -Dquiz.server.idleSeconds (default 600, 0 to keep them forever) is
+ * treated as abandoned and dropped without saving a result. Deadlines and idle timers live on the
+ * shared {@link TimingWheel}, so idle sessions cost no thread and no polling.
+ *
+ * Usage: java quiz.QuizServer [port]   (banks are read from -Dquiz.server.bankDir, default ".")
+ */
+public class QuizServer {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int SESSION_SECONDS = Integer.getInteger("quiz.server.sessionSeconds", 60);
+    private static final long IDLE_NANOS =
+            TimeUnit.SECONDS.toNanos(Integer.getInteger("quiz.server.idleSeconds", 600));
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Path bankDir;
+    private final Map<String, QuestionBank> banks = new ConcurrentHashMap<>();
+    private final Map<String, Long> bankKeys = new ConcurrentHashMap<>(); // answer log bank ids
+    private final Map<Path, String> bankIdsByFile = new ConcurrentHashMap<>();
+    private final Map<String, QuizSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, TimingWheel.Timeout> deadlines = new ConcurrentHashMap<>();
+    private final Map<String, IdleTimer> idleTimers = new ConcurrentHashMap<>();
+    private final AtomicInteger bankIds = new AtomicInteger();
+
+    public QuizServer(int port, Path bankDir) throws IOException {
+        this.bankDir = bankDir.toAbsolutePath().normalize();
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/banks", wrap(this::handleBanks));
+        server.createContext("/sessions", wrap(this::handleSessions));
+        server.createContext("/leaderboard", wrap(this::handleLeaderboard));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Path bankDir = Paths.get(System.getProperty("quiz.server.bankDir", "."));
+        QuizServer quizServer = new QuizServer(port, bankDir);
+        Runtime.getRuntime().addShutdownHook(new Thread(quizServer::stop, "quiz-server-shutdown"));
+        quizServer.start();
+        System.out.println("✅ Quiz server listening on port " + quizServer.getPort() + ", banks from " + bankDir.toAbsolutePath());
+    }
+
+    public void start() {
+        server.start();
+        // Warm the ranked leaderboard so /leaderboard never hits the database.
+        executor.submit(DBUtil::rankedLeaderboard);
+        executor.submit(AnswerLog::shared);
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        AnswerLog.shutdown();
+        DBUtil.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // --------------------
+    // Handlers
+    // --------------------
+
+    private void handleBanks(HttpExchange ex) throws IOException {
+        String[] parts = ex.getRequestURI().getPath().split("/");
+        // "", "banks", [id, "stats"]
+        if (parts.length == 4 && parts[3].equals("stats")) {
+            requireMethod(ex, "GET");
+            handleBankStats(ex, parts[2]);
+            return;
+        }
+        requireMethod(ex, "POST");
+        Path file = resolveBank(param(ex, "path"));
+        // Banks are immutable, so sessions on the same file share one cached instance.
+        QuestionBank bank = QuestionBankCache.shared().load(file);
+        if (bank.isEmpty()) {
+            throw new IllegalArgumentException("No questions in " + file.getFileName());
+        }
+        // One id per file, so repeated loads don't grow the maps; a reload after an edit
+        // replaces the bank under the same id.
+        String id = bankIdsByFile.computeIfAbsent(file, f -> "b" + bankIds.incrementAndGet());
+        bankKeys.put(id, AnswerLog.bankId(file));
+        banks.put(id, bank);
+        send(ex, 201, "{\"bankId\":" + json(id) + ",\"questions\":" + bank.size() + "}");
+    }
+
+    private void handleSessions(HttpExchange ex) throws IOException {
+        String[] parts = ex.getRequestURI().getPath().split("/");
+        // "", "sessions", [id], [action]
+        if (parts.length == 2) {
+            requireMethod(ex, "POST");
+            QuestionBank bank = banks.get(param(ex, "bank"));
+            if (bank == null) throw new NotFound("Unknown bank");
+            Map<String, String> q = query(ex);
+            if (q.containsKey("sample")) {
+                int n = Integer.parseInt(q.get("sample"));
+                bank = q.containsKey("seed")
+                        ? QuestionSampler.sample(bank, n, Long.parseLong(q.get("seed")))
+                        : QuestionSampler.sample(bank, n);
+            }
+            QuizSession session = new QuizSession(bank, bankKeys.get(param(ex, "bank")));
+            QuizQuestion first = session.start(param(ex, "username"));
+            String id = UUID.randomUUID().toString();
+            sessions.put(id, session);
+            if (SESSION_SECONDS > 0) {
+                deadlines.put(id, TimingWheel.shared().schedule(SESSION_SECONDS, TimeUnit.SECONDS,
+                        () -> expire(id, session)));
+            }
+            if (IDLE_NANOS > 0) {
+                IdleTimer idle = new IdleTimer(id, session);
+                idleTimers.put(id, idle);
+                idle.arm(IDLE_NANOS);
+            }
+            send(ex, 201, "{\"sessionId\":" + json(id) + ",\"question\":" + questionJson(session, first) + "}");
+            return;
+        }
+
+        String id = parts[2];
+        QuizSession session = sessions.get(id);
+        if (session == null) throw new NotFound("Unknown session");
+        IdleTimer idle = idleTimers.get(id);
+        if (idle != null) idle.lastSeen = System.nanoTime();
+        String action = parts.length > 3 ? parts[3] : "";
+
+        switch (action) {
+            case "":
+                requireMethod(ex, "GET");
+                send(ex, 200, sessionJson(session, deadlines.get(id)));
+                break;
+            case "answer": {
+                requireMethod(ex, "POST");
+                int option = Integer.parseInt(param(ex, "option"));
+                if (option < 0 || option > 3) {
+                    throw new IllegalArgumentException("Option must be 0-3");
+                }
+                boolean correct;
+                int correctOption;
+                synchronized (session) {
+                    correct = session.answer(option);
+                    correctOption = session.current().getCorrectOptionIndex();
+                }
+                send(ex, 200, "{\"correct\":" + correct + ",\"correctOption\":" + correctOption
+                        + ",\"score\":" + session.getScore() + "}");
+                break;
+            }
+            case "next":
+                requireMethod(ex, "POST");
+                if (session.next()) {
+                    send(ex, 200, "{\"question\":" + questionJson(session, session.current()) + "}");
+                } else {
+                    send(ex, 200, finish(id, session));
+                }
+                break;
+            case "end":
+                requireMethod(ex, "POST");
+                send(ex, 200, finish(id, session));
+                break;
+            default:
+                throw new NotFound("Unknown action " + action);
+        }
+    }
+
+    private void handleBankStats(HttpExchange ex, String id) throws IOException {
+        Long bankId = bankKeys.get(id);
+        if (bankId == null) throw new NotFound("Unknown bank");
+        AnswerLog log = AnswerLog.shared();
+        if (log == null) throw new NotFound("Answer analytics are disabled");
+        String limitParam = query(ex).get("limit");
+        int limit = limitParam == null ? 10 : Math.min(Integer.parseInt(limitParam), 1000);
+        StringBuilder sb = new StringBuilder("{\"questions\":[");
+        List<QuestionStats> hardest = log.hardest(bankId, 1, limit);
+        for (int i = 0; i < hardest.size(); i++) {
+            QuestionStats s = hardest.get(i);
+            long[] picks = s.getOptionCounts();
+            if (i > 0) sb.append(',');
+            sb.append("{\"index\":").append(s.getQuestion())
+                    .append(",\"attempts\":").append(s.getAttempts())
+                    .append(",\"accuracy\":").append(s.getAccuracy())
+                    .append(",\"p50Ms\":").append(s.getPercentileMillis(50))
+                    .append(",\"p90Ms\":").append(s.getPercentileMillis(90))
+                    .append(",\"picks\":[").append(picks[0]).append(',').append(picks[1]).append(',')
+                    .append(picks[2]).append(',').append(picks[3]).append("]}");
+        }
+        send(ex, 200, sb.append("]}").toString());
+    }
+
+    private void handleLeaderboard(HttpExchange ex) throws IOException {
+        requireMethod(ex, "GET");
+        Map<String, String> q = query(ex);
+        String limitParam = q.get("limit");
+        int limit = limitParam == null ? 10 : Math.min(Integer.parseInt(limitParam), 1000);
+        String view = q.getOrDefault("view", "all");
+        List<LeaderboardEntry> top;
+        switch (view) {
+            case "all":
+                top = DBUtil.rankedLeaderboard().top(limit);
+                break;
+            case "best":
+                top = DBUtil.getBestPerUser(limit);
+                break;
+            case "today":
+                top = DBUtil.getDailyLeaderboard(LocalDate.now(), limit);
+                break;
+            case "week":
+                top = DBUtil.getWeeklyLeaderboard(LocalDate.now(), limit);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown view " + view);
+        }
+        StringBuilder sb = new StringBuilder("{\"entries\":[");
+        for (int i = 0; i < top.size(); i++) {
+            LeaderboardEntry e = top.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"rank\":").append(i + 1)
+                    .append(",\"username\":").append(json(e.getUsername()))
+                    .append(",\"score\":").append(e.getScore())
+                    .append(",\"date\":").append(json(e.getQuizDate().toString()))
+                    .append('}');
+        }
+        send(ex, 200, sb.append("]}").toString());
+    }
+
+    /**
+     * Ends the session, saves the result and waits for the group commit (cheap on a virtual thread).
+     */
+    private String finish(String id, QuizSession session) {
+        sessions.remove(id);
+        TimingWheel.Timeout deadline = deadlines.remove(id);
+        if (deadline != null) deadline.cancel();
+        IdleTimer idle = idleTimers.remove(id);
+        if (idle != null) idle.cancel();
+        if (!session.end()) {
+            throw new IllegalStateException("Quiz already finished");
+        }
+        String result = "{\"finished\":true,\"score\":" + session.getScore()
+                + ",\"questions\":" + session.getBank().size();
+        try {
+            LeaderboardEntry saved = DBUtil.saveResultAsync(session.getUsername(), session.getScore()).get();
+            return result + ",\"saved\":true,\"rank\":" + DBUtil.rankedLeaderboard().rankOf(saved) + "}";
+        } catch (ExecutionException e) {
+            return result + ",\"saved\":false}";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return result + ",\"saved\":false}";
+        }
+    }
+
+    /**
+     * Time limit reached. Runs on the wheel thread, so the save is handed to the executor.
+     */
+    private void expire(String id, QuizSession session) {
+        sessions.remove(id);
+        deadlines.remove(id);
+        IdleTimer idle = idleTimers.remove(id);
+        if (idle != null) idle.cancel();
+        if (session.timeout()) {
+            executor.execute(() -> DBUtil.saveResultAsync(session.getUsername(), session.getScore()));
+        }
+    }
+
+    /**
+     * Drops a session whose client stopped sending requests. Requests only stamp
+     * {@link #lastSeen}; when the timer fires early because of that, it re-arms itself for the
+     * rest of the idle period, so a busy session costs one timeout per idle period, not per request.
+     */
+    private final class IdleTimer implements Runnable {
+        private final String id;
+        private final QuizSession session;
+        volatile long lastSeen = System.nanoTime();
+        private volatile TimingWheel.Timeout timeout;
+
+        IdleTimer(String id, QuizSession session) {
+            this.id = id;
+            this.session = session;
+        }
+
+        void arm(long delayNanos) {
+            timeout = TimingWheel.shared().schedule(delayNanos, TimeUnit.NANOSECONDS, this);
+        }
+
+        void cancel() {
+            TimingWheel.Timeout t = timeout;
+            if (t != null) t.cancel();
+        }
+
+        @Override
+        public void run() {
+            if (idleTimers.get(id) != this) return; // finished or expired meanwhile
+            long idle = System.nanoTime() - lastSeen;
+            if (idle < IDLE_NANOS) {
+                arm(IDLE_NANOS - idle);
+                return;
+            }
+            if (idleTimers.remove(id, this)) {
+                sessions.remove(id, session);
+                TimingWheel.Timeout deadline = deadlines.remove(id);
+                if (deadline != null) deadline.cancel();
+            }
+        }
+    }
+
+    // --------------------
+    // Plumbing
+    // --------------------
+
+    private interface Handler {
+        void handle(HttpExchange ex) throws IOException;
+    }
+
+    private static final class NotFound extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        NotFound(String message) {
+            super(message);
+        }
+    }
+
+    private static final class MethodNotAllowed extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MethodNotAllowed(String message) {
+            super(message);
+        }
+    }
+
+    private HttpHandler wrap(Handler handler) {
+        return ex -> {
+            try {
+                handler.handle(ex);
+            } catch (NotFound e) {
+                send(ex, 404, error(e));
+            } catch (MethodNotAllowed e) {
+                send(ex, 405, error(e));
+            } catch (IllegalArgumentException e) {
+                send(ex, 400, error(e));
+            } catch (IllegalStateException e) {
+                send(ex, 409, error(e));
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+                send(ex, 500, error(e));
+            } finally {
+                ex.close();
+            }
+        };
+    }
+
+    private Path resolveBank(String name) {
+        Path file = bankDir.resolve(name).normalize();
+        if (!file.startsWith(bankDir)) {
+            throw new IllegalArgumentException("Bank path must be inside the bank directory");
+        }
+        return file;
+    }
+
+    private static void requireMethod(HttpExchange ex, String method) {
+        if (!ex.getRequestMethod().equalsIgnoreCase(method)) {
+            throw new MethodNotAllowed("Use " + method);
+        }
+    }
+
+    private static String param(HttpExchange ex, String name) {
+        String value = query(ex).get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static Map<String, String> query(HttpExchange ex) {
+        Map<String, String> params = new HashMap<>();
+        String raw = ex.getRequestURI().getRawQuery();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange ex, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String sessionJson(QuizSession session, TimingWheel.Timeout deadline) {
+        synchronized (session) {
+            return "{\"state\":" + json(session.getState().name())
+                    + ",\"score\":" + session.getScore()
+                    + (deadline == null ? "" : ",\"secondsLeft\":" + deadline.getRemaining(TimeUnit.SECONDS))
+                    + ",\"question\":" + questionJson(session, session.current()) + "}";
+        }
+    }
+
+    private static String questionJson(QuizSession session, QuizQuestion q) {
+        if (q == null) return "null";
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"index\":").append(session.getCurrentIndex())
+                .append(",\"total\":").append(session.getBank().size())
+                .append(",\"text\":").append(json(q.getQuestion()))
+                .append(",\"options\":[");
+        for (int i = 0; i < 4; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(json(q.getOption(i)));
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String error(Exception e) {
+        return "{\"error\":" + json(String.valueOf(e.getMessage())) + "}";
+    }
+
+    static String json(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,155 @@
+package quiz;
+
+/**
+ * UI-independent state machine for one player's quiz.
+ *
+ * <pre>
+ * READY --start--> ACTIVE --answer--> ANSWERED --next--> ACTIVE ... --end/timeout--> FINISHED
+ * </pre>
+ * The session only holds a reference to its (shared, read-only) {@link QuestionBank} plus a few
+ * scalars, so a process can host many thousands of them. All methods are thread-safe; the
+ * owner is responsible for timers and for persisting the result once {@link #end()} returns true.
+ * Sessions created with a bank id also report each answer, with its response time, to the
+ * {@link AnswerLog}.
+ */
+public class QuizSession {
+
+    public enum State { READY, ACTIVE, ANSWERED, FINISHED }
+
+    private final QuestionBank bank;
+    private final boolean tracked;
+    private final long bankId;
+    private String username;
+    private long questionShownAt;
+    private int currentIndex;
+    private int score;
+    private State state = State.READY;
+
+    public QuizSession(QuestionBank bank) {
+        this(bank, false, 0);
+    }
+
+    /**
+     * A session whose answers are recorded in the {@link AnswerLog} under {@code bankId}
+     * (see {@link AnswerLog#bankId(java.nio.file.Path)}).
+     */
+    public QuizSession(QuestionBank bank, long bankId) {
+        this(bank, true, bankId);
+    }
+
+    private QuizSession(QuestionBank bank, boolean tracked, long bankId) {
+        if (bank == null) {
+            throw new IllegalArgumentException("Question bank is required");
+        }
+        this.bank = bank;
+        this.tracked = tracked;
+        this.bankId = bankId;
+    }
+
+    /**
+     * Starts (or restarts) the quiz for the player. Returns the first question, or null if
+     * the bank has no questions yet.
+     */
+    public synchronized QuizQuestion start(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            throw new IllegalArgumentException("Username required to start the quiz");
+        }
+        this.username = username.trim();
+        this.currentIndex = 0;
+        this.score = 0;
+        this.state = State.ACTIVE;
+        this.questionShownAt = System.nanoTime();
+        QuizMetrics.sessionStarted();
+        QuizEvents.sessionStarted(this.username, bank.size());
+        return current();
+    }
+
+    /**
+     * Answers the current question with option index 0-3. Returns true if correct.
+     *
+     * @throws IllegalStateException if the question was already answered or the quiz is not running
+     */
+    public synchronized boolean answer(int optionIndex) {
+        if (state != State.ACTIVE) {
+            throw new IllegalStateException("Cannot answer in state " + state);
+        }
+        QuizQuestion q = current();
+        if (q == null) {
+            throw new IllegalStateException("No question available at index " + currentIndex);
+        }
+        boolean correct = q.isCorrect(optionIndex);
+        if (correct) score++;
+        state = State.ANSWERED;
+        QuizMetrics.answered(correct);
+        QuizEvents.answered(username, currentIndex, optionIndex, correct);
+        if (tracked) {
+            AnswerLog.answered(bankId, bank.sourceIndex(currentIndex), optionIndex, correct,
+                    System.nanoTime() - questionShownAt);
+        }
+        return correct;
+    }
+
+    /**
+     * Moves to the next question. Returns true if it is available; false if the player has
+     * reached the end of the bank (or of the part loaded so far). Does not end the quiz.
+     */
+    public synchronized boolean next() {
+        if (state == State.FINISHED || state == State.READY) {
+            throw new IllegalStateException("Cannot advance in state " + state);
+        }
+        currentIndex++;
+        state = State.ACTIVE;
+        questionShownAt = System.nanoTime();
+        return currentIndex < bank.size();
+    }
+
+    /**
+     * Time ran out; equivalent to {@link #end()}.
+     */
+    public boolean timeout() {
+        return end();
+    }
+
+    /**
+     * Finishes the quiz. Returns true only for the call that actually ended it, so the
+     * caller knows to save the result exactly once.
+     */
+    public synchronized boolean end() {
+        if (state == State.FINISHED || state == State.READY) return false;
+        state = State.FINISHED;
+        QuizMetrics.sessionFinished();
+        QuizEvents.sessionEnded(username, score, bank.size());
+        return true;
+    }
+
+    /**
+     * The question at the current index, or null if it is not (yet) in the bank.
+     */
+    public synchronized QuizQuestion current() {
+        return currentIndex < bank.size() ? bank.get(currentIndex) : null;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean isRunning() {
+        return state == State.ACTIVE || state == State.ANSWERED;
+    }
+
+    public synchronized int getScore() {
+        return score;
+    }
+
+    public synchronized int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    public synchronized String getUsername() {
+        return username;
+    }
+
+    public QuestionBank getBank() {
+        return bank;
+    }
+}
@@ -1,34 +1,71 @@
 package quiz;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.util.Duration;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JavaFX countdown on top of the shared {@link TimingWheel}.
+ *
+ * The wheel owns the deadline; this class only wakes up once per whole second to publish the
+ * remaining seconds to {@link #timeRemainingProperty()} on the FX thread. Each {@link #start}
+ * creates its tick callbacks once and arms one fixed-rate timeout aligned to the whole seconds
+ * before the deadline, so ticking allocates nothing. Call it from the FX thread;
+ * {@code onFinish} runs there too.
+ */
 public class QuizTimer {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
     private final IntegerProperty timeRemaining = new SimpleIntegerProperty();
-    private Timeline timeline;
+    private final TimingWheel wheel;
+    private TimingWheel.Timeout tick;
+    private Runnable onFinish;
+    private long deadline;
+    private int generation; // bumped by start/stop so stale ticks are ignored
+
+    public QuizTimer() {
+        this(TimingWheel.shared());
+    }
+
+    public QuizTimer(TimingWheel wheel) {
+        this.wheel = wheel;
+    }
 
     public void start(int seconds, Runnable onFinish) {
         stop();
+        this.onFinish = onFinish;
+        this.deadline = System.nanoTime() + seconds * SECOND;
         timeRemaining.set(seconds);
-        timeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
-            timeRemaining.set(timeRemaining.get() - 1);
-            if (timeRemaining.get() <= 0) {
-                stop();
-                onFinish.run();
-            }
-        }));
-        timeline.setCycleCount(seconds);
-        timeline.play();
+        int gen = generation;
+        Runnable onFxTick = () -> onTick(gen);
+        Runnable wheelTick = () -> Platform.runLater(onFxTick);
+        // The deadline is a whole number of seconds away, so the last tick lands on it.
+        long delay = seconds <= 0 ? 0 : SECOND;
+        tick = wheel.scheduleAtFixedRate(delay, SECOND, TimeUnit.NANOSECONDS, wheelTick);
     }
 
     public void stop() {
-        if (timeline != null) timeline.stop();
+        generation++;
+        if (tick != null) {
+            tick.cancel();
+            tick = null;
+        }
     }
 
     public IntegerProperty timeRemainingProperty() {
         return timeRemaining;
     }
+
+    private void onTick(int gen) {
+        if (gen != generation) return;
+        long left = deadline - System.nanoTime();
+        int seconds = left <= 0 ? 0 : (int) ((left + SECOND - 1) / SECOND);
+        timeRemaining.set(seconds);
+        if (seconds <= 0) {
+            stop();
+            onFinish.run();
+        }
+    }
 }
@@ -0,0 +1,250 @@
+package quiz;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory ranked leaderboard: an order-statistic treap (each node knows its subtree size)
+ * keyed by score desc, date asc, then result id.
+ *
+ * Insertion, rank lookup and select-by-rank are O(log n). Only the best {@code capacity}
+ * entries are kept; anything ranked below the cap is dropped, so {@link #rankOf} returns -1
+ * for it. Ranks are 1-based. All methods are thread-safe.
+ */
+public class RankedLeaderboard {
+
+    /** Leaderboard order: higher score first, then earlier date, then lower id. */
+    public static final Comparator<LeaderboardEntry> ORDER = (a, b) -> {
+        int c = Integer.compare(b.getScore(), a.getScore());
+        if (c != 0) return c;
+        c = a.getQuizDate().compareTo(b.getQuizDate());
+        if (c != 0) return c;
+        c = Long.compare(a.getId(), b.getId());
+        if (c != 0) return c;
+        return a.getUsername().compareTo(b.getUsername());
+    };
+
+    private static final class Node {
+        final LeaderboardEntry entry;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(LeaderboardEntry entry) {
+            this.entry = entry;
+        }
+    }
+
+    private final int capacity;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+
+    public RankedLeaderboard(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an entry unless an identical one is already present or it ranks below a full board.
+     */
+    public void add(LeaderboardEntry entry) {
+        lock.writeLock().lock();
+        try {
+            insert(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(Collection<LeaderboardEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            for (LeaderboardEntry e : entries) {
+                insert(e);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the 1-based rank the entry has (or would have) on the board,
+     * or -1 if it ranks below the retained entries of a full board.
+     */
+    public int rankOf(LeaderboardEntry entry) {
+        lock.readLock().lock();
+        try {
+            int before = countBefore(root, entry);
+            if (before >= size(root) && size(root) >= capacity) return -1;
+            return before + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entry at the 1-based rank, or null if out of range.
+     */
+    public LeaderboardEntry get(int rank) {
+        lock.readLock().lock();
+        try {
+            if (rank < 1 || rank > size(root)) return null;
+            return select(root, rank - 1).entry;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best {@code n} entries in rank order.
+     */
+    public List<LeaderboardEntry> top(int n) {
+        return range(1, n);
+    }
+
+    /**
+     * Returns the entries ranked {@code rank - radius} to {@code rank + radius} (clamped to the board).
+     */
+    public List<LeaderboardEntry> around(int rank, int radius) {
+        int from = Math.max(1, rank - radius);
+        return range(from, rank + radius - from + 1);
+    }
+
+    private List<LeaderboardEntry> range(int fromRank, int count) {
+        lock.readLock().lock();
+        try {
+            int from = fromRank - 1;
+            int to = Math.min(size(root), from + Math.max(count, 0));
+            List<LeaderboardEntry> out = new ArrayList<>(Math.max(to - from, 0));
+            collect(root, from, to, 0, out);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --------------------
+    // Treap internals (callers hold the lock)
+    // --------------------
+
+    private void insert(LeaderboardEntry entry) {
+        int n = size(root);
+        if (n >= capacity && ORDER.compare(entry, select(root, n - 1).entry) >= 0) {
+            return;
+        }
+        Node[] lt = split(root, entry, false);
+        Node[] ge = split(lt[1], entry, true);
+        if (ge[0] != null) {
+            // Already present.
+            root = merge(lt[0], merge(ge[0], ge[1]));
+            return;
+        }
+        root = merge(merge(lt[0], new Node(entry)), ge[1]);
+        if (size(root) > capacity) {
+            root = removeLast(root);
+        }
+    }
+
+    /**
+     * Splits into (keys &lt; key, keys &gt;= key), or (keys &lt;= key, keys &gt; key) when inclusive.
+     */
+    private static Node[] split(Node t, LeaderboardEntry key, boolean inclusive) {
+        if (t == null) return new Node[] { null, null };
+        int c = ORDER.compare(t.entry, key);
+        if (c < 0 || (inclusive && c == 0)) {
+            Node[] r = split(t.right, key, inclusive);
+            t.right = r[0];
+            update(t);
+            return new Node[] { t, r[1] };
+        }
+        Node[] l = split(t.left, key, inclusive);
+        t.left = l[1];
+        update(t);
+        return new Node[] { l[0], t };
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static Node removeLast(Node t) {
+        if (t.right == null) return t.left;
+        t.right = removeLast(t.right);
+        update(t);
+        return t;
+    }
+
+    private static Node select(Node t, int index) {
+        while (t != null) {
+            int leftSize = size(t.left);
+            if (index < leftSize) {
+                t = t.left;
+            } else if (index == leftSize) {
+                return t;
+            } else {
+                index -= leftSize + 1;
+                t = t.right;
+            }
+        }
+        throw new IndexOutOfBoundsException();
+    }
+
+    private static int countBefore(Node t, LeaderboardEntry key) {
+        int count = 0;
+        while (t != null) {
+            if (ORDER.compare(t.entry, key) < 0) {
+                count += size(t.left) + 1;
+                t = t.right;
+            } else {
+                t = t.left;
+            }
+        }
+        return count;
+    }
+
+    private static void collect(Node t, int from, int to, int offset, List<LeaderboardEntry> out) {
+        if (t == null || from >= to) return;
+        int index = offset + size(t.left);
+        if (from < index) collect(t.left, from, to, offset, out);
+        if (from <= index && index < to) out.add(t.entry);
+        if (index + 1 < to) collect(t.right, from, to, index + 1, out);
+    }
+
+    private static int size(Node t) {
+        return t == null ? 0 : t.size;
+    }
+
+    private static void update(Node t) {
+        t.size = 1 + size(t.left) + size(t.right);
+    }
+}
@@ -0,0 +1,66 @@
+package quiz;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Backend that stores quiz results and serves the ranked leaderboard and the per-player
+ * summaries (each player's best overall, per day and per week).
+ *
+ * {@link DBUtil} opens one with -Dquiz.store and keeps metrics, the write-behind writer and the
+ * in-memory {@link RankedLeaderboard} in front of it:
+ * <ul>
+ *   <li>{@code sqlite} (default): the {@code results} table in the SQLite database at
+ *       -Dquiz.db.url, with summary tables kept by a trigger. Only this store feeds
+ *       {@link ResultTransfer}.</li>
+ *   <li>{@code h2}: the same tables in an embedded H2 database ({@link H2ResultStore}).</li>
+ *   <li>{@code mmap}: an append-only memory-mapped file ({@link MappedResultStore}); cheapest
+ *       writes, but leaderboard and summary reads scan the file.</li>
+ * </ul>
+ * Ranking is {@link RankedLeaderboard#ORDER}. Every backend reports failures as SQLException,
+ * so callers handle a single type. Implementations are thread-safe.
+ *
+ * Compare them with quiz.bench.ResultStoreBenchmark.
+ */
+public interface ResultStore extends AutoCloseable {
+
+    /**
+     * Stores the results atomically and returns them, in order, with their assigned ids.
+     */
+    List<LeaderboardEntry> saveResults(List<LeaderboardEntry> results) throws SQLException;
+
+    /**
+     * Returns up to {@code limit} results ranked after {@code after}, or the top results if
+     * {@code after} is null.
+     */
+    List<LeaderboardEntry> getLeaderboardPage(int limit, LeaderboardEntry after) throws SQLException;
+
+    /**
+     * Returns every result, ranked.
+     */
+    List<LeaderboardEntry> getAll() throws SQLException;
+
+    /**
+     * Each player's best result (highest score, earliest on ties), ranked; one entry per player.
+     */
+    List<LeaderboardEntry> getBestPerUser(int limit) throws SQLException;
+
+    /**
+     * Best result of each player on the given local day, ranked.
+     */
+    List<LeaderboardEntry> getDailyBest(LocalDate day, int limit) throws SQLException;
+
+    /**
+     * Best result of each player in the Monday-to-Sunday week starting on {@code monday}, ranked.
+     */
+    List<LeaderboardEntry> getWeeklyBest(LocalDate monday, int limit) throws SQLException;
+
+    /**
+     * Best result and attempt count of one player, or null if they have never played.
+     */
+    PlayerSummary getPlayerSummary(String username) throws SQLException;
+
+    @Override
+    void close();
+}
@@ -0,0 +1,355 @@
+package quiz;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.time.LocalDateTime;
+
+/**
+ * Bulk export and import of the {@code results} table.
+ *
+ * Export walks the table once with a forward-only, read-only cursor and streams rows straight
+ * to the file, so memory stays flat however many results there are. Import reads the file the
+ * same way and inserts in large transactions; with {@code deferIndexes} the ranking index and the
+ * summary trigger are dropped first and rebuilt in one pass at the end, which is much faster
+ * than maintaining them row by row.
+ *
+ * Two formats, picked by file extension:
+ * <ul>
+ *   <li>{@code .csv}: {@code username,score,quiz_date} with a header line and ISO local dates.</li>
+ *   <li>anything else: binary, a {@code QZR1} header followed by (UTF username, int score,
+ *       long epoch millis) records.</li>
+ * </ul>
+ * Row ids are not carried over; imported results get new ones.
+ *
+ * Usage: java quiz.ResultTransfer export results.qzr
+ *        java quiz.ResultTransfer import results.csv [--defer-indexes]
+ */
+public final class ResultTransfer {
+
+    private static final int FETCH_SIZE = Integer.getInteger("quiz.db.fetchSize", 10_000);
+    private static final int IMPORT_BATCH_SIZE = Integer.getInteger("quiz.db.importBatchSize", 50_000);
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int MAGIC = 0x515A5231; // "QZR1"
+    private static final int VERSION = 1;
+    private static final String CSV_HEADER = "username,score,quiz_date";
+
+    private static final String EXPORT_SQL = "SELECT username, score, quiz_date FROM results ORDER BY rowid";
+
+    private ResultTransfer() {
+    }
+
+    /**
+     * Writes every result to {@code file} in insertion order and returns how many were written.
+     */
+    public static long exportResults(Path file) throws IOException, SQLException {
+        requireSqliteStore();
+        try (ConnectionPool.PooledConnection conn = DBUtil.pool().borrow();
+             PreparedStatement stmt = conn.connection().prepareStatement(EXPORT_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             RowWriter out = isCsv(file) ? new CsvWriter(file) : new BinaryWriter(file)) {
+            stmt.setFetchSize(FETCH_SIZE);
+            long rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    out.write(rs.getString(1), rs.getInt(2), rs.getTimestamp(3).getTime());
+                    rows++;
+                }
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Appends every result in {@code file} to the table and returns how many were inserted.
+     * Each batch of {@code quiz.db.importBatchSize} rows is its own transaction.
+     */
+    public static long importResults(Path file, boolean deferIndexes) throws IOException, SQLException {
+        requireSqliteStore();
+        long rows = 0;
+        try (ConnectionPool.PooledConnection conn = DBUtil.pool().borrow();
+             RowReader in = isCsv(file) ? new CsvReader(file) : new BinaryReader(file)) {
+            Connection c = conn.connection();
+            PreparedStatement pstmt = conn.prepare(DBUtil.INSERT_RESULT_SQL);
+            if (deferIndexes) {
+                DBUtil.prepareBulkLoad(c);
+            }
+            c.setAutoCommit(false);
+            try {
+                int pending = 0;
+                while (in.next()) {
+                    pstmt.setString(1, in.username);
+                    pstmt.setInt(2, in.score);
+                    pstmt.setTimestamp(3, new Timestamp(in.epochMillis));
+                    pstmt.addBatch();
+                    if (++pending == IMPORT_BATCH_SIZE) {
+                        pstmt.executeBatch();
+                        c.commit();
+                        rows += pending;
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    pstmt.executeBatch();
+                    c.commit();
+                    rows += pending;
+                }
+            } finally {
+                pstmt.clearBatch();
+                c.rollback();
+                if (deferIndexes) {
+                    // Also after a failure: committed batches stay, so the summaries must cover them.
+                    DBUtil.finishBulkLoad(c);
+                }
+            }
+        }
+        if (!deferIndexes) {
+            DBUtil.resetRankedLeaderboard();
+        }
+        return rows;
+    }
+
+    private static void requireSqliteStore() throws SQLException {
+        if (!DBUtil.isSqliteStore()) {
+            throw new SQLException("Bulk transfer works on the SQLite results table; run with -Dquiz.store=sqlite");
+        }
+    }
+
+    private static boolean isCsv(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".csv");
+    }
+
+    // --------------------
+    // Writers
+    // --------------------
+
+    private interface RowWriter extends Closeable {
+        void write(String username, int score, long epochMillis) throws IOException;
+    }
+
+    private static final class BinaryWriter implements RowWriter {
+        private final DataOutputStream out;
+
+        BinaryWriter(Path file) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        @Override
+        public void write(String username, int score, long epochMillis) throws IOException {
+            out.writeUTF(username);
+            out.writeInt(score);
+            out.writeLong(epochMillis);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static final class CsvWriter implements RowWriter {
+        private final Writer out;
+
+        CsvWriter(Path file) throws IOException {
+            out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8),
+                    BUFFER_SIZE);
+            out.write(CSV_HEADER);
+            out.write('\n');
+        }
+
+        @Override
+        public void write(String username, int score, long epochMillis) throws IOException {
+            writeField(username);
+            out.write(',');
+            out.write(Integer.toString(score));
+            out.write(',');
+            out.write(new Timestamp(epochMillis).toLocalDateTime().toString());
+            out.write('\n');
+        }
+
+        private void writeField(String s) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < s.length() && !quote; i++) {
+                char ch = s.charAt(i);
+                quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+            }
+            if (!quote) {
+                out.write(s);
+                return;
+            }
+            out.write('"');
+            out.write(s.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    // --------------------
+    // Readers
+    // --------------------
+
+    /** Forward-only cursor over a file; fields hold the current row after {@link #next()}. */
+    private abstract static class RowReader implements Closeable {
+        String username;
+        int score;
+        long epochMillis;
+
+        abstract boolean next() throws IOException;
+    }
+
+    private static final class BinaryReader extends RowReader {
+        private final DataInputStream in;
+
+        BinaryReader(Path file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+            try {
+                if (in.readInt() != MAGIC) throw new IOException(file + " is not a result export");
+                int version = in.readInt();
+                if (version != VERSION) throw new IOException("Unsupported result export version " + version);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        @Override
+        boolean next() throws IOException {
+            try {
+                username = in.readUTF();
+            } catch (EOFException e) {
+                return false;
+            }
+            score = in.readInt();
+            epochMillis = in.readLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads the CSV written by {@link CsvWriter}: quoted fields may contain commas, doubled
+     * quotes and line breaks. A leading header line is skipped.
+     */
+    private static final class CsvReader extends RowReader {
+        private final Reader in;
+        private final StringBuilder field = new StringBuilder();
+        private final String[] fields = new String[3];
+        private long record = 1;
+
+        CsvReader(Path file) throws IOException {
+            in = new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8),
+                    BUFFER_SIZE);
+        }
+
+        @Override
+        boolean next() throws IOException {
+            while (true) {
+                int count = readRecord();
+                if (count < 0) return false;
+                long at = record++;
+                if (count == 1 && fields[0].isEmpty()) continue; // blank line
+                if (count != 3) throw new IOException("Record " + at + ": expected 3 fields, got " + count);
+                if (at == 1 && CSV_HEADER.equals(fields[0] + ',' + fields[1] + ',' + fields[2])) continue;
+                try {
+                    username = fields[0];
+                    score = Integer.parseInt(fields[1].trim());
+                    epochMillis = Timestamp.valueOf(LocalDateTime.parse(fields[2].trim())).getTime();
+                } catch (RuntimeException e) {
+                    throw new IOException("Record " + at + ": " + e.getMessage(), e);
+                }
+                return true;
+            }
+        }
+
+        /** Reads one record into {@link #fields}; returns its field count, or -1 at end of file. */
+        private int readRecord() throws IOException {
+            int count = 0;
+            boolean quoted = false;
+            boolean any = false;
+            field.setLength(0);
+            while (true) {
+                int ch = in.read();
+                if (ch < 0) {
+                    if (!any) return -1;
+                    if (quoted) throw new IOException("Record " + record + ": unterminated quoted field");
+                    return store(count);
+                }
+                any = true;
+                if (quoted) {
+                    if (ch == '"') {
+                        in.mark(1);
+                        if (in.read() == '"') {
+                            field.append('"');
+                        } else {
+                            in.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) ch);
+                    }
+                } else if (ch == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (ch == ',') {
+                    count = store(count);
+                    field.setLength(0);
+                } else if (ch == '\n') {
+                    return store(count);
+                } else if (ch != '\r') {
+                    field.append((char) ch);
+                }
+            }
+        }
+
+        private int store(int count) {
+            if (count < fields.length) fields[count] = field.toString();
+            return count + 1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // --------------------
+    // Command line
+    // --------------------
+
+    public static void main(String[] args) {
+        if (args.length < 2 || !(args[0].equals("export") || args[0].equals("import"))) {
+            System.err.println("Usage: ResultTransfer export <file.csv|file.qzr>");
+            System.err.println("       ResultTransfer import <file.csv|file.qzr> [--defer-indexes]");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[1]);
+        boolean deferIndexes = args.length > 2 && args[2].equals("--defer-indexes");
+        long start = System.nanoTime();
+        try {
+            long rows = args[0].equals("export") ? exportResults(file) : importResults(file, deferIndexes);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("✅ %s %,d results %s %s in %.1f s (%,.0f rows/s)%n",
+                    args[0].equals("export") ? "Exported" : "Imported", rows,
+                    args[0].equals("export") ? "to" : "from", file, seconds, rows / Math.max(seconds, 1e-9));
+        } catch (IOException | SQLException e) {
+            System.err.println("❌ Error during result " + args[0] + ":");
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            DBUtil.shutdown();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package quiz;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind queue for quiz results.
+ *
+ * Results are queued by {@link #submit(LeaderboardEntry)} and written by a single background
+ * thread that group-commits up to {@code batchSize} rows per transaction, waiting at most
+ * {@code maxDelayMillis} after the first queued row for a batch to fill. The queue is bounded:
+ * when it is full, submit blocks until the writer catches up. {@link #close()} stops accepting
+ * results and flushes everything already queued before returning.
+ */
+public class ResultWriter implements AutoCloseable {
+
+    /** Writes one batch of results in a single transaction and returns them as stored. */
+    public interface BatchSink {
+        List<LeaderboardEntry> write(List<LeaderboardEntry> batch) throws SQLException;
+    }
+
+    private static final class Pending {
+        final LeaderboardEntry result;
+        final CompletableFuture<LeaderboardEntry> done = new CompletableFuture<>();
+
+        Pending(LeaderboardEntry result) {
+            this.result = result;
+        }
+    }
+
+    /** Longest the writer blocks before re-checking {@link #closed}. */
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final BatchSink sink;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Pending> queue;
+    private final Thread thread;
+    private volatile boolean closed = false;
+    // Submitters hold the read lock from their closed check until their result is queued;
+    // close() takes the write lock to set closed, so no result can be queued after it.
+    private final ReadWriteLock gate = new ReentrantReadWriteLock();
+
+    public ResultWriter(BatchSink sink, int batchSize, long maxDelayMillis, int queueCapacity) {
+        if (batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Batch size and queue capacity must be positive");
+        }
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.thread = new Thread(this::run, "quiz-result-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a result, blocking while the queue is full. The returned future completes with the
+     * stored entry once the result's batch has been committed, or exceptionally if the write failed.
+     */
+    public CompletableFuture<LeaderboardEntry> submit(LeaderboardEntry result) {
+        Pending p = new Pending(result);
+        gate.readLock().lock();
+        try {
+            if (closed) {
+                p.done.completeExceptionally(new IllegalStateException("Result writer is closed"));
+                return p.done;
+            }
+            // The writer keeps running until closed is set, so a put blocked on a full queue
+            // always completes, and close() waits for it.
+            queue.put(p);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            p.done.completeExceptionally(e);
+        } finally {
+            gate.readLock().unlock();
+        }
+        return p.done;
+    }
+
+    /** Number of results waiting to be written. */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    // Take whatever is already queued, then wait out the window for stragglers.
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) continue;
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || closed) break;
+                    Pending next = queue.poll(Math.min(remaining, POLL_NANOS), TimeUnit.NANOSECONDS);
+                    if (next != null) batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Nobody should interrupt this thread; write what was collected and keep draining.
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        if (batch.isEmpty()) return;
+        List<LeaderboardEntry> rows = new ArrayList<>(batch.size());
+        for (Pending p : batch) rows.add(p.result);
+        try {
+            List<LeaderboardEntry> stored = sink.write(rows);
+            for (int i = 0; i < batch.size(); i++) batch.get(i).done.complete(stored.get(i));
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("❌ Error saving " + rows.size() + " result(s):");
+            e.printStackTrace();
+            for (Pending p : batch) p.done.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stops accepting results and blocks until every queued result has been written.
+     */
+    @Override
+    public void close() {
+        // No interrupt: the flag would still be set inside sink.write and fail the final batch
+        // (a pool borrow or a file write). The writer re-checks closed at least every 100 ms.
+        gate.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            gate.writeLock().unlock();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // The writer only stops once the queue is empty; this covers a writer thread that died
+        // (or a join that was interrupted), writing the rest on the closing thread.
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        writeBatch(rest);
+    }
+}
@@ -0,0 +1,313 @@
+package quiz;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel: one thread tracks any number of deadlines.
+ *
+ * Scheduling and cancelling are O(1): a new timeout is queued lock-free and filed into its wheel
+ * bucket (an intrusive linked list) on the next tick; a cancelled one is unlinked the same way.
+ * Each tick only walks the current bucket, and ticking allocates nothing. Timeouts never fire
+ * early; they fire on the first tick after their deadline. A fixed-rate timeout
+ * ({@link #scheduleAtFixedRate}) is re-filed by the wheel thread itself after each run, so
+ * repeating allocates nothing either.
+ *
+ * Callbacks run on the wheel thread and must be quick: hand real work to another thread
+ * (e.g. {@code Platform.runLater} or an executor). The {@link #shared()} wheel ticks every
+ * -Dquiz.timer.tickMs (default 50 ms).
+ */
+public final class TimingWheel implements AutoCloseable {
+
+    private static final long DEFAULT_TICK_MS = Long.getLong("quiz.timer.tickMs", 50);
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /** Timeouts moved from the queues into buckets per tick, so a flood cannot stall ticking. */
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private static volatile TimingWheel shared;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startNanos;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<Timeout> rearmed = new ArrayDeque<>(); // wheel thread only
+    private final AtomicLong active = new AtomicLong();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick; // wheel thread only
+
+    public TimingWheel(long tickDuration, TimeUnit unit, int wheelSize) {
+        if (tickDuration <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        if (size <= 0) size = 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, "quiz-timing-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Process-wide wheel used by {@link QuizTimer} and the server.
+     */
+    public static TimingWheel shared() {
+        TimingWheel w = shared;
+        if (w == null) {
+            synchronized (TimingWheel.class) {
+                w = shared;
+                if (w == null) {
+                    w = new TimingWheel(DEFAULT_TICK_MS, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE);
+                    shared = w;
+                }
+            }
+        }
+        return w;
+    }
+
+    /**
+     * Runs {@code task} on the wheel thread once the delay has passed, unless cancelled first.
+     */
+    public Timeout schedule(long delay, TimeUnit unit, Runnable task) {
+        return schedule(delay, 0, unit, task);
+    }
+
+    /**
+     * Runs {@code task} on the wheel thread after {@code initialDelay} and then every
+     * {@code period}, measured from the initial deadline so runs do not drift, until cancelled.
+     */
+    public Timeout scheduleAtFixedRate(long initialDelay, long period, TimeUnit unit, Runnable task) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        return schedule(initialDelay, period, unit, task);
+    }
+
+    private Timeout schedule(long delay, long period, TimeUnit unit, Runnable task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task is required");
+        }
+        if (!running) {
+            throw new IllegalStateException("Timing wheel is closed");
+        }
+        long deadline = System.nanoTime() + Math.max(0, unit.toNanos(delay)) - startNanos;
+        Timeout timeout = new Timeout(this, task, deadline, unit.toNanos(period));
+        active.incrementAndGet();
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /** Number of scheduled timeouts that have neither fired nor been cancelled. */
+    public long getActiveCount() {
+        return active.get();
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --------------------
+    // Timeout handle
+    // --------------------
+
+    public static final class Timeout {
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long period; // 0 for a one-shot timeout
+        private volatile long deadline; // relative to wheel start; advanced by the wheel thread
+        private volatile int state = INIT;
+
+        // Owned by the wheel thread.
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(TimingWheel wheel, Runnable task, long deadline, long period) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        /**
+         * Cancels the timeout. Returns false if it already fired or was cancelled.
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, INIT, CANCELLED)) return false;
+            wheel.active.decrementAndGet();
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        /** Time left until the (next) deadline (0 once it has passed). */
+        public long getRemaining(TimeUnit unit) {
+            long left = wheel.startNanos + deadline - System.nanoTime();
+            return unit.convert(Math.max(0, left), TimeUnit.NANOSECONDS);
+        }
+
+        private void expire() {
+            if (period == 0) {
+                if (!STATE.compareAndSet(this, INIT, EXPIRED)) return;
+                wheel.active.decrementAndGet();
+            } else if (state != INIT) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error in timeout callback:");
+                e.printStackTrace();
+            }
+            if (period != 0 && state == INIT) {
+                deadline += period;
+                wheel.rearmed.add(this);
+            }
+        }
+    }
+
+    // --------------------
+    // Wheel thread
+    // --------------------
+
+    private void run() {
+        while (running) {
+            long tickEnd = waitForTick();
+            if (!running) break;
+            removeCancelled();
+            transferRearmed();
+            transferPending();
+            wheel[(int) (tick & mask)].expire(tickEnd);
+            tick++;
+        }
+    }
+
+    /**
+     * Sleeps until the end of the current tick and returns that time (relative to start).
+     */
+    private long waitForTick() {
+        long tickEnd = tickNanos * (tick + 1);
+        while (running) {
+            long sleep = tickEnd - (System.nanoTime() - startNanos);
+            if (sleep <= 0) break;
+            LockSupport.parkNanos(this, sleep);
+        }
+        return tickEnd;
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout t = pending.poll();
+            if (t == null) return;
+            if (t.state != Timeout.INIT) continue;
+            file(t);
+        }
+    }
+
+    /** Files fixed-rate timeouts that ran on the previous tick for their next deadline. */
+    private void transferRearmed() {
+        Timeout t;
+        while ((t = rearmed.poll()) != null) {
+            if (t.state == Timeout.INIT) file(t);
+        }
+    }
+
+    private void file(Timeout t) {
+        long expiresAtTick = t.deadline / tickNanos;
+        t.remainingRounds = (expiresAtTick - tick) / wheel.length;
+        // Already overdue: fire on the current tick rather than a past one.
+        long ticks = Math.max(expiresAtTick, tick);
+        wheel[(int) (ticks & mask)].add(t);
+    }
+
+    private void removeCancelled() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout t = cancelled.poll();
+            if (t == null) return;
+            if (t.bucket != null) t.bucket.remove(t);
+        }
+    }
+
+    /** Intrusive doubly linked list of timeouts; touched only by the wheel thread. */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout t) {
+            t.bucket = this;
+            if (head == null) {
+                head = tail = t;
+            } else {
+                tail.next = t;
+                t.prev = tail;
+                tail = t;
+            }
+        }
+
+        void expire(long tickEnd) {
+            Timeout t = head;
+            while (t != null) {
+                Timeout next = t.next;
+                if (t.state != Timeout.INIT) {
+                    remove(t);
+                } else if (t.remainingRounds <= 0) {
+                    remove(t);
+                    if (t.deadline <= tickEnd) {
+                        t.expire();
+                    }
+                } else {
+                    t.remainingRounds--;
+                }
+                t = next;
+            }
+        }
+
+        void remove(Timeout t) {
+            if (t.bucket != this) return;
+            if (t.prev != null) t.prev.next = t.next; else head = t.next;
+            if (t.next != null) t.next.prev = t.prev; else tail = t.prev;
+            t.prev = null;
+            t.next = null;
+            t.bucket = null;
+        }
+    }
+}